@@ -77,7 +77,7 @@ public class AuthService {
             logger.info("User status is active: {}", request.getUsername());
 
             logger.info("Generating JWT token for user: {} with roles: {}", user.getUsername(), user.getRoles());
-            String token = jwtUtil.generateToken(user.getUsername(), user.getRoles());
+            String token = jwtUtil.generateToken(user.getUsername(), user.getId(), user.getRoles());
             logger.info("JWT token generated successfully for user: {}", request.getUsername());
             
             return new LoginResponse(token, user.getUsername(), user.getFullName(), user.getRoles());
@@ -0,0 +1,45 @@
+package com.example.common.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "services.http")
+public class HttpClientProperties {
+
+    private int maxTotalConnections = 200;
+    private int maxConnectionsPerRoute = 50;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration readTimeout = Duration.ofSeconds(10);
+    private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+    private Duration keepAlive = Duration.ofSeconds(30);
+    private Duration idleEviction = Duration.ofSeconds(30);
+    private Duration validateAfterInactivity = Duration.ofSeconds(2);
+
+    // Getters and Setters
+    public int getMaxTotalConnections() { return maxTotalConnections; }
+    public void setMaxTotalConnections(int maxTotalConnections) { this.maxTotalConnections = maxTotalConnections; }
+
+    public int getMaxConnectionsPerRoute() { return maxConnectionsPerRoute; }
+    public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) { this.maxConnectionsPerRoute = maxConnectionsPerRoute; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getReadTimeout() { return readTimeout; }
+    public void setReadTimeout(Duration readTimeout) { this.readTimeout = readTimeout; }
+
+    public Duration getConnectionRequestTimeout() { return connectionRequestTimeout; }
+    public void setConnectionRequestTimeout(Duration connectionRequestTimeout) { this.connectionRequestTimeout = connectionRequestTimeout; }
+
+    public Duration getKeepAlive() { return keepAlive; }
+    public void setKeepAlive(Duration keepAlive) { this.keepAlive = keepAlive; }
+
+    public Duration getIdleEviction() { return idleEviction; }
+    public void setIdleEviction(Duration idleEviction) { this.idleEviction = idleEviction; }
+
+    public Duration getValidateAfterInactivity() { return validateAfterInactivity; }
+    public void setValidateAfterInactivity(Duration validateAfterInactivity) { this.validateAfterInactivity = validateAfterInactivity; }
+}
@@ -1,20 +1,90 @@
 package com.example.common.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 
-import java.time.Duration;
+import java.util.function.ToDoubleFunction;
 
 @Configuration
 public class RestTemplateConfig {
 
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager serviceConnectionManager(HttpClientProperties properties) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxTotalConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.getConnectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.getReadTimeout()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.getValidateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient serviceHttpClient(PoolingHttpClientConnectionManager serviceConnectionManager,
+                                                 HttpClientProperties properties) {
+        TimeValue maxKeepAlive = TimeValue.of(properties.getKeepAlive());
+
+        return HttpClients.custom()
+                .setConnectionManager(serviceConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.getConnectionRequestTimeout()))
+                        .setResponseTimeout(Timeout.of(properties.getReadTimeout()))
+                        .build())
+                // Honour the server's Keep-Alive header, but never hold a connection longer than configured
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue advertised = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return advertised.compareTo(maxKeepAlive) > 0 ? maxKeepAlive : advertised;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.getIdleEviction()))
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, CloseableHttpClient serviceHttpClient) {
         return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(10))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(serviceHttpClient))
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public MeterBinder serviceHttpClientPoolMetrics(PoolingHttpClientConnectionManager serviceConnectionManager) {
+        return registry -> {
+            registerPoolGauge(registry, serviceConnectionManager, "leased", "Connections currently in use",
+                    cm -> cm.getTotalStats().getLeased());
+            registerPoolGauge(registry, serviceConnectionManager, "pending", "Requests waiting for a connection",
+                    cm -> cm.getTotalStats().getPending());
+            registerPoolGauge(registry, serviceConnectionManager, "available", "Idle connections ready for reuse",
+                    cm -> cm.getTotalStats().getAvailable());
+            registerPoolGauge(registry, serviceConnectionManager, "max", "Maximum pool size",
+                    cm -> cm.getTotalStats().getMax());
+        };
+    }
+
+    private void registerPoolGauge(MeterRegistry registry,
+                                   PoolingHttpClientConnectionManager connectionManager,
+                                   String state, String description,
+                                   ToDoubleFunction<PoolingHttpClientConnectionManager> value) {
+        Gauge.builder("http.client.pool.connections", connectionManager, value)
+                .tag("state", state)
+                .description(description)
+                .register(registry);
+    }
+}
@@ -7,7 +7,7 @@ import org.springframework.context.annotation.Configuration;
 @ConfigurationProperties(prefix = "services")
 public class ServiceConfig {
     
-    private String authServiceUrl = "http://localhost:8080";
+    private String authServiceUrl = "http://localhost:8084";
     private String userServiceUrl = "http://localhost:8081";
     private String productServiceUrl = "http://localhost:8082";
     private String orderServiceUrl = "http://localhost:8083";
@@ -0,0 +1,31 @@
+package com.example.common.response;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keyset pagination for lists served newest first by {@code (createdAt, id)}.
+ * <p>
+ * A page that has more rows after it carries a {@code nextCursor} with the createdAt and id of its last row.
+ * The client passes them back as {@code afterCreatedAt}/{@code afterId}. The next page is then read with
+ * {@code createdAt <= :createdAt AND (createdAt < :createdAt OR (createdAt = :createdAt AND id < :id))}
+ * over an index on {@code (createdAt, id)}:
+ * <ul>
+ *   <li>The first bound is implied by the second. It is kept so MySQL seeks the index instead of scanning
+ *       it for the OR.</li>
+ *   <li>id breaks ties between rows created in the same instant.</li>
+ *   <li>Unlike an OFFSET, the cost of a page does not grow with its depth.</li>
+ * </ul>
+ */
+public final class KeysetCursor {
+
+    private KeysetCursor() {}
+
+    public static Map<String, Object> of(LocalDateTime createdAt, Long id) {
+        Map<String, Object> cursor = new HashMap<>();
+        cursor.put("afterCreatedAt", createdAt);
+        cursor.put("afterId", id);
+        return cursor;
+    }
+}
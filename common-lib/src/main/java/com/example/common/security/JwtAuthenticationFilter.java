@@ -0,0 +1,114 @@
+package com.example.common.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared bearer-token filter: verifies the JWT once (via the JwtUtil claims cache) and
+ * populates the security context with authorities taken from the token's {@code roles} claim.
+ */
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+    private static final String ROLE_PREFIX = "ROLE_";
+    private static final int MAX_INTERNED_ROLE_SETS = 64;
+
+    private static final Map<String, SimpleGrantedAuthority> AUTHORITIES = new ConcurrentHashMap<>();
+    private static final Map<List<String>, List<GrantedAuthority>> AUTHORITY_LISTS = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private final List<PathPattern> skipPatterns;
+
+    public JwtAuthenticationFilter(
+            @Value("${jwt.filter.skip-paths:/actuator/**,/swagger-ui/**,/api-docs/**,/v3/api-docs/**}")
+            String[] skipPaths) {
+        List<PathPattern> patterns = new ArrayList<>(skipPaths.length);
+        for (String path : skipPaths) {
+            patterns.add(PathPatternParser.defaultInstance.parse(path.trim()));
+        }
+        this.skipPatterns = List.copyOf(patterns);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        PathContainer container = PathContainer.parsePath(path);
+        for (PathPattern pattern : skipPatterns) {
+            if (pattern.matches(container)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                  FilterChain filterChain) throws ServletException, IOException {
+
+        String authHeader = request.getHeader("Authorization");
+
+        if (authHeader != null && authHeader.startsWith(BEARER_PREFIX)) {
+            String token = authHeader.substring(BEARER_PREFIX.length());
+
+            try {
+                JwtClaims claims = jwtUtil.parseAndVerify(token);
+
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(
+                        claims.getSubject(),
+                        null,
+                        authoritiesFor(claims.getRoles())
+                    );
+
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+            } catch (Exception e) {
+                logger.error("JWT token validation failed: " + e.getMessage());
+            }
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    static List<GrantedAuthority> authoritiesFor(List<String> roles) {
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+        List<GrantedAuthority> authorities = AUTHORITY_LISTS.get(roles);
+        if (authorities != null) {
+            return authorities;
+        }
+
+        List<GrantedAuthority> built = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            built.add(AUTHORITIES.computeIfAbsent(role, r -> new SimpleGrantedAuthority(ROLE_PREFIX + r)));
+        }
+        authorities = List.copyOf(built);
+        // Role combinations are few in practice; stop interning if tokens carry unexpected variety
+        if (AUTHORITY_LISTS.size() < MAX_INTERNED_ROLE_SETS) {
+            AUTHORITY_LISTS.putIfAbsent(List.copyOf(roles), authorities);
+        }
+        return authorities;
+    }
+}
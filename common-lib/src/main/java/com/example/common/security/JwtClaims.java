@@ -0,0 +1,35 @@
+package com.example.common.security;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Immutable view of a verified token: subject, userId, roles and expiry parsed in a single pass.
+ */
+public final class JwtClaims {
+    private final String subject;
+    private final Long userId;
+    private final List<String> roles;
+    private final Date expiration;
+
+    public JwtClaims(String subject, Long userId, List<String> roles, Date expiration) {
+        this.subject = subject;
+        this.userId = userId;
+        this.roles = roles != null ? Collections.unmodifiableList(roles) : Collections.emptyList();
+        this.expiration = expiration;
+    }
+
+    public String getSubject() { return subject; }
+
+    /** Null for tokens issued before the userId claim was added. */
+    public Long getUserId() { return userId; }
+
+    public List<String> getRoles() { return roles; }
+
+    public Date getExpiration() { return expiration; }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration != null && expiration.getTime() <= nowMillis;
+    }
+}
@@ -1,51 +1,125 @@
 package com.example.common.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
     private static final long JWT_EXPIRATION = 86400000; // 24 hours
+    private static final String USER_ID_CLAIM = "userId";
 
     @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
     private String jwtSecret;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
+    @Value("${jwt.cache.ttl-seconds:300}")
+    private long cacheTtlSeconds;
+
+    // Built once at startup; the key and parser are immutable and thread-safe
+    private SecretKey signingKey;
+    private JwtParser jwtParser;
+
+    // Verified claims keyed by raw token, never kept past the token's own expiry
+    private Cache<String, JwtClaims> verifiedClaims;
+
+    @PostConstruct
+    void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+
+        long ttlNanos = TimeUnit.SECONDS.toNanos(cacheTtlSeconds);
+        this.verifiedClaims = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<String, JwtClaims>() {
+                    @Override
+                    public long expireAfterCreate(String token, JwtClaims claims, long currentTime) {
+                        if (claims.getExpiration() == null) {
+                            return ttlNanos;
+                        }
+                        long untilExpiry = TimeUnit.MILLISECONDS.toNanos(
+                                claims.getExpiration().getTime() - System.currentTimeMillis());
+                        return Math.max(0, Math.min(ttlNanos, untilExpiry));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, JwtClaims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     public String generateToken(String username, Set<?> roles) {
+        return generateToken(username, null, roles);
+    }
+
+    public String generateToken(String username, Long userId, Set<?> roles) {
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + JWT_EXPIRATION);
 
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(username)
-                .claim("roles", roles)
+                .claim("roles", roles);
+        if (userId != null) {
+            builder.claim(USER_ID_CLAIM, userId);
+        }
+        return builder
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Verifies the token signature and expiry and returns subject, userId, roles and expiry together.
+     * Results are cached per token, so repeated calls within the cache window skip the HMAC check.
+     *
+     * @throws JwtException if the token is malformed, tampered with or expired
+     */
+    public JwtClaims parseAndVerify(String token) {
+        JwtClaims cached = verifiedClaims.getIfPresent(token);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseClaimsJws(token).getBody();
+        JwtClaims verified = new JwtClaims(claims.getSubject(), extractUserId(claims),
+                extractRoles(claims), claims.getExpiration());
+        verifiedClaims.put(token, verified);
+        return verified;
+    }
+
     public String getUsernameFromToken(String token) {
         try {
-            Claims claims = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
-            return claims.getSubject();
-        } catch (JwtException e) {
+            return parseAndVerify(token).getSubject();
+        } catch (JwtException | IllegalArgumentException e) {
             logger.error("Error extracting username from token: {}", e.getMessage());
             throw new RuntimeException("Invalid token");
         }
@@ -53,14 +127,30 @@ public class JwtUtil {
 
     public boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
+            parseAndVerify(token);
             return true;
-        } catch (JwtException e) {
+        } catch (JwtException | IllegalArgumentException e) {
             logger.error("Token validation failed: {}", e.getMessage());
             return false;
         }
     }
-}
\ No newline at end of file
+
+    private Long extractUserId(Claims claims) {
+        Object rawUserId = claims.get(USER_ID_CLAIM);
+        return rawUserId instanceof Number number ? number.longValue() : null;
+    }
+
+    private List<String> extractRoles(Claims claims) {
+        Object rawRoles = claims.get("roles");
+        if (!(rawRoles instanceof Collection<?> collection)) {
+            return List.of();
+        }
+        List<String> roles = new ArrayList<>(collection.size());
+        for (Object role : collection) {
+            if (role != null) {
+                roles.add(role.toString());
+            }
+        }
+        return roles;
+    }
+}
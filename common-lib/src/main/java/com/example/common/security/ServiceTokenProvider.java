@@ -0,0 +1,38 @@
+package com.example.common.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Bearer token for calls between services, where there is no user token to forward. Signed with the shared
+ * JWT secret and carrying the {@value #SERVICE_ROLE} role, which user accounts are never given; renewed well
+ * before it expires.
+ */
+@Component
+public class ServiceTokenProvider {
+
+    public static final String SERVICE_ROLE = "SERVICE";
+    private static final Duration TOKEN_RENEWAL = Duration.ofHours(1);
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${spring.application.name:service}")
+    private String serviceName;
+
+    private volatile String serviceToken;
+    private volatile long serviceTokenIssuedAt;
+
+    public String getToken() {
+        long now = System.currentTimeMillis();
+        if (serviceToken == null || now - serviceTokenIssuedAt > TOKEN_RENEWAL.toMillis()) {
+            serviceToken = jwtUtil.generateToken(serviceName, Set.of(SERVICE_ROLE));
+            serviceTokenIssuedAt = now;
+        }
+        return serviceToken;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.config;
 
+import com.example.common.security.JwtAuthenticationFilter;
+import com.example.common.security.ServiceTokenProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -34,7 +36,7 @@ public class SecurityConfig {
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers("/actuator/**").permitAll()
-                .requestMatchers("/api/webhooks/**").permitAll()
+                .requestMatchers("/api/webhooks/**").hasRole(ServiceTokenProvider.SERVICE_ROLE)
                 .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/api-docs/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/api/management/**").authenticated()
                 .anyRequest().authenticated()
@@ -1,67 +1,51 @@
 package com.example.controller;
 
 import com.example.entity.Order;
-import com.example.service.OrderService;
-import com.example.common.security.JwtUtil;
+import com.example.service.OrderStatisticsService;
+import com.example.common.config.ServiceConfig;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/management/financial")
+@PreAuthorize("hasRole('ADMIN')")
 public class FinancialReportController {
 
     @Autowired
-    private OrderService orderService;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
+    private OrderStatisticsService orderStatisticsService;
     
     @Autowired
     private RestTemplate restTemplate;
     
-    private static final String PAYMENT_SERVICE_URL = "http://localhost:8085";
+    @Autowired
+    private ServiceConfig serviceConfig;
 
     @GetMapping("/dashboard")
     public ResponseEntity<Map<String, Object>> getFinancialDashboard(
             @RequestHeader("Authorization") String token) {
         
-        validateToken(token);
-        
-        // Lấy data từ order service
-        List<Order> allOrders = orderService.getAllOrders();
-        
         // Lấy payment data từ payment service
         Map<String, Object> paymentData = getPaymentData(token);
         
         // Tính toán doanh thu
-        BigDecimal totalOrderValue = allOrders.stream()
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-        BigDecimal deliveredRevenue = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-        BigDecimal cancelledLoss = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        OrderStatisticsService.Totals allTotals = orderStatisticsService.getTotals();
+        OrderStatisticsService.Totals delivered = orderStatisticsService.getTotals(Order.OrderStatus.DELIVERED);
+        BigDecimal totalOrderValue = allTotals.getAmount();
+        BigDecimal deliveredRevenue = delivered.getAmount();
+        BigDecimal cancelledLoss = orderStatisticsService.getTotals(Order.OrderStatus.CANCELLED).getAmount();
         
         // Tỷ lệ thành công
-        long totalOrders = allOrders.size();
-        long deliveredOrders = allOrders.stream()
-            .mapToLong(o -> o.getStatus() == Order.OrderStatus.DELIVERED ? 1 : 0)
-            .sum();
+        long totalOrders = allTotals.getCount();
+        long deliveredOrders = delivered.getCount();
         double deliveryRate = totalOrders > 0 ? (double) deliveredOrders / totalOrders * 100 : 0;
         
         Map<String, Object> dashboard = new HashMap<>();
@@ -85,45 +69,24 @@ public class FinancialReportController {
     
     @GetMapping("/money-flow-report")
     public ResponseEntity<Map<String, Object>> getMoneyFlowReport(
-            @RequestHeader("Authorization") String token,
             @RequestParam(required = false) String period) {
         
-        validateToken(token);
-        
-        List<Order> allOrders = orderService.getAllOrders();
-        
         // Xác định thời gian
-        LocalDateTime startDate = LocalDateTime.now().minusDays(
+        LocalDate startDate = LocalDate.now().minusDays(
             "monthly".equals(period) ? 30 : 7
         );
         
         // Dòng tiền vào từ orders đã confirm/deliver
-        Map<String, BigDecimal> dailyIncome = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CONFIRMED || 
-                        o.getStatus() == Order.OrderStatus.DELIVERED)
-            .filter(o -> o.getCreatedAt().isAfter(startDate))
-            .collect(Collectors.groupingBy(
-                o -> o.getCreatedAt().toLocalDate().toString(),
-                Collectors.reducing(BigDecimal.ZERO, Order::getTotalAmount, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> dailyIncome = orderStatisticsService.getDailyAmounts(
+            List.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.DELIVERED), startDate);
         
         // Dòng tiền mất từ orders bị cancel
-        Map<String, BigDecimal> dailyLoss = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-            .filter(o -> o.getCreatedAt().isAfter(startDate))
-            .collect(Collectors.groupingBy(
-                o -> o.getCreatedAt().toLocalDate().toString(),
-                Collectors.reducing(BigDecimal.ZERO, Order::getTotalAmount, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> dailyLoss = orderStatisticsService.getDailyAmounts(
+            List.of(Order.OrderStatus.CANCELLED), startDate);
         
         // Dòng tiền theo phương thức thanh toán
-        Map<String, BigDecimal> incomeByPaymentMethod = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-            .filter(o -> o.getPaymentMethod() != null)
-            .collect(Collectors.groupingBy(
-                Order::getPaymentMethod,
-                Collectors.reducing(BigDecimal.ZERO, Order::getTotalAmount, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> incomeByPaymentMethod = orderStatisticsService.getAmountsByPaymentMethod(
+            List.of(Order.OrderStatus.DELIVERED));
         
         Map<String, Object> report = new HashMap<>();
         report.put("period", period != null ? period : "weekly");
@@ -148,29 +111,20 @@ public class FinancialReportController {
     public ResponseEntity<Map<String, Object>> getOrderPaymentReconciliation(
             @RequestHeader("Authorization") String token) {
         
-        validateToken(token);
-        
-        List<Order> allOrders = orderService.getAllOrders();
         Map<String, Object> paymentData = getPaymentData(token);
         
         // Orders có payment thành công
-        long ordersWithSuccessfulPayment = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CONFIRMED || 
-                        o.getStatus() == Order.OrderStatus.DELIVERED)
-            .count();
+        long ordersWithSuccessfulPayment = orderStatisticsService.getTotals(
+            List.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.DELIVERED)).getCount();
         
         // Orders bị cancel
-        long cancelledOrders = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-            .count();
+        long cancelledOrders = orderStatisticsService.getTotals(Order.OrderStatus.CANCELLED).getCount();
         
         // Orders pending
-        long pendingOrders = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.PENDING)
-            .count();
+        long pendingOrders = orderStatisticsService.getTotals(Order.OrderStatus.PENDING).getCount();
         
         Map<String, Object> reconciliation = new HashMap<>();
-        reconciliation.put("totalOrders", allOrders.size());
+        reconciliation.put("totalOrders", orderStatisticsService.getTotals().getCount());
         reconciliation.put("ordersWithSuccessfulPayment", ordersWithSuccessfulPayment);
         reconciliation.put("cancelledOrders", cancelledOrders);
         reconciliation.put("pendingOrders", pendingOrders);
@@ -186,7 +140,7 @@ public class FinancialReportController {
     
     private Map<String, Object> getPaymentData(String token) {
         try {
-            String url = PAYMENT_SERVICE_URL + "/api/management/payments/statistics";
+            String url = serviceConfig.getPaymentServiceUrl() + "/api/management/payments/statistics";
             org.springframework.http.HttpHeaders headers = new org.springframework.http.HttpHeaders();
             headers.set("Authorization", token);
             
@@ -207,15 +161,4 @@ public class FinancialReportController {
             return null;
         }
     }
-    
-    private void validateToken(String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header required");
-        }
-        
-        String jwt = token.substring(7);
-        if (!jwtUtil.validateToken(jwt)) {
-            throw new RuntimeException("Invalid or expired token");
-        }
-    }
 }
\ No newline at end of file
@@ -47,10 +47,11 @@ public class OrderController {
     @PostMapping("/place")
     public ResponseEntity<ApiResponse<OrderResponse>> placeOrder(
             @Valid @RequestBody PlaceOrderRequest request,
-            @RequestHeader("Authorization") String authHeader) {
+            @RequestHeader("Authorization") String authHeader,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         
         String token = authHeader.replace("Bearer ", "");
-        OrderResponse orderResponse = orderService.placeOrderWithAuth(request, token);
+        OrderResponse orderResponse = orderService.placeOrderWithAuth(request, token, idempotencyKey);
         return ResponseEntity.ok(ApiResponse.success("Order placed successfully", orderResponse));
     }
 
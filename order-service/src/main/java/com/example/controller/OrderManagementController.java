@@ -1,133 +1,98 @@
 package com.example.controller;
 
+import com.example.common.exception.BusinessException;
+import com.example.common.response.KeysetCursor;
 import com.example.entity.Order;
 import com.example.service.OrderService;
-import com.example.common.security.JwtUtil;
+import com.example.service.OrderStatisticsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/management/orders")
+@PreAuthorize("hasRole('ADMIN')")
 public class OrderManagementController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private OrderService orderService;
-    
-    @Autowired
-    private JwtUtil jwtUtil;
 
+    @Autowired
+    private OrderStatisticsService orderStatisticsService;
+    
     @GetMapping("/status-overview")
-    public ResponseEntity<Map<String, Object>> getOrderStatusOverview(
-            @RequestHeader("Authorization") String token) {
-        
-        validateToken(token);
-        
-        List<Order> allOrders = orderService.getAllOrders();
-        
-        // Đếm orders theo status
-        Map<String, Long> statusCount = allOrders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getStatus().toString(),
-                Collectors.counting()
-            ));
-        
-        // Tính tổng giá trị orders theo status
-        Map<String, BigDecimal> statusValue = allOrders.stream()
-            .collect(Collectors.groupingBy(
-                o -> o.getStatus().toString(),
-                Collectors.reducing(BigDecimal.ZERO, Order::getTotalAmount, BigDecimal::add)
-            ));
-        
-        // Đơn hàng đã giao (DELIVERED)
-        long deliveredCount = allOrders.stream()
-            .mapToLong(o -> o.getStatus() == Order.OrderStatus.DELIVERED ? 1 : 0)
-            .sum();
-            
-        BigDecimal deliveredValue = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        // Đơn hàng đã hủy (CANCELLED)
-        long cancelledCount = allOrders.stream()
-            .mapToLong(o -> o.getStatus() == Order.OrderStatus.CANCELLED ? 1 : 0)
-            .sum();
-            
-        BigDecimal cancelledValue = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    public ResponseEntity<Map<String, Object>> getOrderStatusOverview() {
+        
+        Map<Order.OrderStatus, OrderStatisticsService.Totals> totalsByStatus = orderStatisticsService.getTotalsByStatus();
+        
+        // Đếm orders và tổng giá trị theo status
+        Map<String, Long> statusCount = new HashMap<>();
+        Map<String, BigDecimal> statusValue = new HashMap<>();
+        totalsByStatus.forEach((status, totals) -> {
+            statusCount.put(status.toString(), totals.getCount());
+            statusValue.put(status.toString(), totals.getAmount());
+        });
+        
+        // Đơn hàng đã giao (DELIVERED) và đã hủy (CANCELLED)
+        OrderStatisticsService.Totals delivered = orderStatisticsService.getTotals(Order.OrderStatus.DELIVERED);
+        OrderStatisticsService.Totals cancelled = orderStatisticsService.getTotals(Order.OrderStatus.CANCELLED);
         
         Map<String, Object> overview = new HashMap<>();
-        overview.put("totalOrders", allOrders.size());
+        overview.put("totalOrders", orderStatisticsService.getTotals().getCount());
         overview.put("statusCount", statusCount);
         overview.put("statusValue", statusValue);
-        overview.put("deliveredOrders", deliveredCount);
-        overview.put("deliveredValue", deliveredValue);
-        overview.put("cancelledOrders", cancelledCount);
-        overview.put("cancelledValue", cancelledValue);
+        overview.put("deliveredOrders", delivered.getCount());
+        overview.put("deliveredValue", delivered.getAmount());
+        overview.put("cancelledOrders", cancelled.getCount());
+        overview.put("cancelledValue", cancelled.getAmount());
         
         return ResponseEntity.ok(overview);
     }
     
     @GetMapping("/orders")
     public ResponseEntity<Map<String, Object>> getAllOrders(
-            @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Long afterId) {
         
-        validateToken(token);
+        Order.OrderStatus orderStatus = parseStatus(status);
+        Slice<Order> orders = orderService.getOrderSlice(orderStatus, Math.max(page, 0), clampSize(size), afterCreatedAt, afterId);
+        long totalCount = orderStatus != null
+            ? orderStatisticsService.getTotals(orderStatus).getCount()
+            : orderStatisticsService.getTotals().getCount();
         
-        List<Order> orders = orderService.getAllOrders();
-        
-        // Filter by status
-        if (status != null && !status.isEmpty()) {
-            orders = orders.stream()
-                .filter(o -> o.getStatus().toString().equalsIgnoreCase(status))
-                .toList();
-        }
-        
-        // Manual pagination
-        int start = Math.min(page * size, orders.size());
-        int end = Math.min(start + size, orders.size());
-        List<Order> pageContent = orders.subList(start, end);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("orders", pageContent);
-        response.put("totalCount", orders.size());
-        response.put("currentPage", page);
-        response.put("pageSize", size);
+        Map<String, Object> response = pageResponse("orders", orders, page);
+        response.put("totalCount", totalCount);
         
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/order/{id}")
     public ResponseEntity<Order> getOrderDetail(
-            @RequestHeader("Authorization") String token,
             @PathVariable Long id) {
-        
-        validateToken(token);
         Order order = orderService.getOrderById(id);
         return ResponseEntity.ok(order);
     }
     
     @PutMapping("/order/{id}/status")
     public ResponseEntity<Order> updateOrderStatus(
-            @RequestHeader("Authorization") String token,
             @PathVariable Long id,
             @RequestBody Map<String, String> request) {
         
-        validateToken(token);
-        
         String status = request.get("status");
         Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
         
@@ -137,92 +102,53 @@ public class OrderManagementController {
     
     @GetMapping("/delivered")
     public ResponseEntity<Map<String, Object>> getDeliveredOrders(
-            @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
-        validateToken(token);
-        
-        List<Order> deliveredOrders = orderService.getOrdersByStatus(Order.OrderStatus.DELIVERED);
-        
-        // Manual pagination
-        int start = Math.min(page * size, deliveredOrders.size());
-        int end = Math.min(start + size, deliveredOrders.size());
-        List<Order> pageContent = deliveredOrders.subList(start, end);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Long afterId) {
         
-        BigDecimal totalDeliveredValue = deliveredOrders.stream()
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        Slice<Order> deliveredOrders = orderService.getOrderSlice(
+            Order.OrderStatus.DELIVERED, Math.max(page, 0), clampSize(size), afterCreatedAt, afterId);
+        OrderStatisticsService.Totals delivered = orderStatisticsService.getTotals(Order.OrderStatus.DELIVERED);
         
-        Map<String, Object> response = new HashMap<>();
-        response.put("deliveredOrders", pageContent);
-        response.put("totalCount", deliveredOrders.size());
-        response.put("totalValue", totalDeliveredValue);
-        response.put("currentPage", page);
-        response.put("pageSize", size);
+        Map<String, Object> response = pageResponse("deliveredOrders", deliveredOrders, page);
+        response.put("totalCount", delivered.getCount());
+        response.put("totalValue", delivered.getAmount());
         
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/cancelled")
     public ResponseEntity<Map<String, Object>> getCancelledOrders(
-            @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
-        
-        validateToken(token);
-        
-        List<Order> cancelledOrders = orderService.getOrdersByStatus(Order.OrderStatus.CANCELLED);
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Long afterId) {
         
-        // Manual pagination
-        int start = Math.min(page * size, cancelledOrders.size());
-        int end = Math.min(start + size, cancelledOrders.size());
-        List<Order> pageContent = cancelledOrders.subList(start, end);
+        Slice<Order> cancelledOrders = orderService.getOrderSlice(
+            Order.OrderStatus.CANCELLED, Math.max(page, 0), clampSize(size), afterCreatedAt, afterId);
+        OrderStatisticsService.Totals cancelled = orderStatisticsService.getTotals(Order.OrderStatus.CANCELLED);
         
-        BigDecimal totalCancelledValue = cancelledOrders.stream()
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        
-        Map<String, Object> response = new HashMap<>();
-        response.put("cancelledOrders", pageContent);
-        response.put("totalCount", cancelledOrders.size());
-        response.put("totalValue", totalCancelledValue);
-        response.put("currentPage", page);
-        response.put("pageSize", size);
+        Map<String, Object> response = pageResponse("cancelledOrders", cancelledOrders, page);
+        response.put("totalCount", cancelled.getCount());
+        response.put("totalValue", cancelled.getAmount());
         
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/revenue-report")
-    public ResponseEntity<Map<String, Object>> getRevenueReport(
-            @RequestHeader("Authorization") String token) {
-        
-        validateToken(token);
-        
-        List<Order> allOrders = orderService.getAllOrders();
+    public ResponseEntity<Map<String, Object>> getRevenueReport() {
         
         // Doanh thu từ đơn hàng đã giao
-        BigDecimal confirmedRevenue = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CONFIRMED || 
-                        o.getStatus() == Order.OrderStatus.DELIVERED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal confirmedRevenue = orderStatisticsService.getTotals(
+            List.of(Order.OrderStatus.CONFIRMED, Order.OrderStatus.DELIVERED)).getAmount();
         
         // Tổn thất từ đơn hàng bị hủy
-        BigDecimal lostRevenue = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.CANCELLED)
-            .map(Order::getTotalAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal lostRevenue = orderStatisticsService.getTotals(Order.OrderStatus.CANCELLED).getAmount();
         
         // Doanh thu theo ngày (7 ngày gần nhất)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        Map<String, BigDecimal> dailyRevenue = allOrders.stream()
-            .filter(o -> o.getStatus() == Order.OrderStatus.DELIVERED)
-            .filter(o -> o.getCreatedAt().isAfter(sevenDaysAgo))
-            .collect(Collectors.groupingBy(
-                o -> o.getCreatedAt().toLocalDate().toString(),
-                Collectors.reducing(BigDecimal.ZERO, Order::getTotalAmount, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> dailyRevenue = orderStatisticsService.getDailyAmounts(
+            List.of(Order.OrderStatus.DELIVERED), LocalDate.now().minusDays(7));
         
         Map<String, Object> report = new HashMap<>();
         report.put("confirmedRevenue", confirmedRevenue);
@@ -233,14 +159,32 @@ public class OrderManagementController {
         return ResponseEntity.ok(report);
     }
     
-    private void validateToken(String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header required");
+    private static Order.OrderStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
         }
-        
-        String jwt = token.substring(7);
-        if (!jwtUtil.validateToken(jwt)) {
-            throw new RuntimeException("Invalid or expired token");
+        try {
+            return Order.OrderStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid order status: " + status);
+        }
+    }
+    
+    private static int clampSize(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+    
+    // nextCursor: see KeysetCursor
+    private static Map<String, Object> pageResponse(String contentKey, Slice<Order> slice, int page) {
+        Map<String, Object> response = new HashMap<>();
+        response.put(contentKey, slice.getContent());
+        response.put("currentPage", page);
+        response.put("pageSize", slice.getSize());
+        response.put("hasNext", slice.hasNext());
+        if (slice.hasNext() && slice.hasContent()) {
+            Order last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            response.put("nextCursor", KeysetCursor.of(last.getCreatedAt(), last.getId()));
         }
+        return response;
     }
-}
\ No newline at end of file
+}
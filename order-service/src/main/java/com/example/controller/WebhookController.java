@@ -1,13 +1,20 @@
 package com.example.controller;
 
-import com.example.service.OrderService;
-import com.example.entity.Order;
+import com.example.service.PaymentWebhookService;
+import com.example.service.ProductPriceSnapshot;
+import com.example.dto.PaymentStatusEvent;
+import com.example.dto.PaymentStatusEventBatch;
+import com.example.dto.PaymentStatusEventResult;
+import com.example.dto.ProductPriceNotification;
+import com.example.common.exception.BusinessException;
+import com.example.common.response.ApiResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -15,9 +22,13 @@ import java.util.Map;
 public class WebhookController {
 
     private static final Logger logger = LoggerFactory.getLogger(WebhookController.class);
+    private static final int MAX_BATCH_SIZE = 500;
 
     @Autowired
-    private OrderService orderService;
+    private PaymentWebhookService paymentWebhookService;
+
+    @Autowired
+    private ProductPriceSnapshot productPriceSnapshot;
 
     @PostMapping("/payment-status")
     public ResponseEntity<?> handlePaymentStatusUpdate(@RequestBody Map<String, Object> payload) {
@@ -27,10 +38,15 @@ public class WebhookController {
             
             logger.info("Received payment status update for order {}: {}", orderId, paymentStatus);
             
-            Order.OrderStatus newOrderStatus = mapPaymentStatusToOrderStatus(paymentStatus);
-            if (newOrderStatus != null) {
-                orderService.updateOrderStatus(orderId, newOrderStatus);
-                logger.info("Updated order {} status to {}", orderId, newOrderStatus);
+            // eventId and sequence are optional here; without them only the state machine guards the change
+            PaymentStatusEvent event = new PaymentStatusEvent();
+            event.setOrderId(orderId);
+            event.setStatus(paymentStatus);
+            event.setEventId(payload.get("eventId") != null ? payload.get("eventId").toString() : null);
+            event.setSequence(payload.get("sequence") instanceof Number sequence ? sequence.longValue() : null);
+            PaymentStatusEventResult result = paymentWebhookService.apply(List.of(event)).get(0);
+            if (result.getOutcome() == PaymentStatusEventResult.Outcome.REJECTED) {
+                return ResponseEntity.badRequest().body(Map.of("error", result.getError()));
             }
             
             return ResponseEntity.ok().body(Map.of("message", "Payment status updated successfully"));
@@ -41,15 +57,26 @@ public class WebhookController {
         }
     }
     
-    private Order.OrderStatus mapPaymentStatusToOrderStatus(String paymentStatus) {
-        switch (paymentStatus.toUpperCase()) {
-            case "COMPLETED":
-                return Order.OrderStatus.CONFIRMED;
-            case "FAILED":
-            case "CANCELLED":
-                return Order.OrderStatus.CANCELLED;
-            default:
-                return null; // No status change needed
+    /**
+     * Status changes queued by payment-service's outbox, applied in the order given. Duplicate, stale and
+     * disallowed changes are IGNORED; an event that can never apply (unknown order) is REJECTED and the rest
+     * still go through. Any other failure fails the whole call so payment-service retries it.
+     */
+    @PostMapping("/payment-status/batch")
+    public ResponseEntity<ApiResponse<List<PaymentStatusEventResult>>> handlePaymentStatusBatch(
+            @RequestBody PaymentStatusEventBatch batch) {
+        List<PaymentStatusEvent> events = batch.getEvents() != null ? batch.getEvents() : List.of();
+        if (events.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("At most " + MAX_BATCH_SIZE + " events per batch");
         }
+        List<PaymentStatusEventResult> results = paymentWebhookService.apply(events);
+        logger.info("Processed batch of {} payment status events", events.size());
+        return ResponseEntity.ok(ApiResponse.success(results));
+    }
+    
+    @PostMapping("/product-prices")
+    public ResponseEntity<?> handleProductPriceChanges(@RequestBody ProductPriceNotification notification) {
+        productPriceSnapshot.apply(notification);
+        return ResponseEntity.ok().body(Map.of("message", "Product prices applied"));
     }
 }
\ No newline at end of file
@@ -1,6 +1,5 @@
 package com.example.dto;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public class CreateOrderRequest {
@@ -25,11 +24,10 @@ public class CreateOrderRequest {
     public List<OrderItemRequest> getItems() { return items; }
     public void setItems(List<OrderItemRequest> items) { this.items = items; }
 
+    // Name and price are taken from the product catalog, not from the request
     public static class OrderItemRequest {
         private Long productId;
-        private String productName;
         private Integer quantity;
-        private BigDecimal unitPrice;
 
         // Constructors
         public OrderItemRequest() {}
@@ -38,13 +36,7 @@ public class CreateOrderRequest {
         public Long getProductId() { return productId; }
         public void setProductId(Long productId) { this.productId = productId; }
 
-        public String getProductName() { return productName; }
-        public void setProductName(String productName) { this.productName = productName; }
-
         public Integer getQuantity() { return quantity; }
         public void setQuantity(Integer quantity) { this.quantity = quantity; }
-
-        public BigDecimal getUnitPrice() { return unitPrice; }
-        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
     }
 }
\ No newline at end of file
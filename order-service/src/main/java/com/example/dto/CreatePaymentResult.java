@@ -0,0 +1,39 @@
+package com.example.dto;
+
+/**
+ * Outcome of one line of a batch payment creation. EXISTING means the order already had a payment, so a
+ * retried request never creates a second one.
+ */
+public class CreatePaymentResult {
+    private Long orderId;
+    private Long paymentId;
+    private Outcome outcome;
+    private String error;
+
+    // Constructors
+    public CreatePaymentResult() {}
+
+    public CreatePaymentResult(Long orderId, Long paymentId, Outcome outcome, String error) {
+        this.orderId = orderId;
+        this.paymentId = paymentId;
+        this.outcome = outcome;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public Outcome getOutcome() { return outcome; }
+    public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public enum Outcome {
+        CREATED, EXISTING, REJECTED
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.dto;
+
+import com.example.entity.Order;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface OrderStatisticsRow {
+    Order.OrderStatus getStatus();
+    String getPaymentMethod();
+    LocalDate getDay();
+    Long getOrderCount();
+    BigDecimal getTotalAmount();
+}
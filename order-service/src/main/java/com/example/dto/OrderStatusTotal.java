@@ -0,0 +1,10 @@
+package com.example.dto;
+
+import com.example.entity.Order;
+import java.math.BigDecimal;
+
+public interface OrderStatusTotal {
+    Order.OrderStatus getStatus();
+    Long getOrderCount();
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,18 @@
+package com.example.dto;
+
+import com.example.entity.Order;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * The columns a status transition needs, read without loading the order and its items.
+ */
+public interface OrderTransitionView {
+    Long getId();
+    Order.OrderStatus getStatus();
+    Long getPaymentEventSequence();
+    LocalDateTime getCreatedAt();
+    String getPaymentMethod();
+    BigDecimal getTotalAmount();
+    Long getStockReservationId();
+}
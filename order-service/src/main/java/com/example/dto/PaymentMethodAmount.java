@@ -0,0 +1,8 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public interface PaymentMethodAmount {
+    String getPaymentMethod();
+    BigDecimal getTotalAmount();
+}
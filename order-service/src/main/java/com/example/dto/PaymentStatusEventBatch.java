@@ -0,0 +1,14 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class PaymentStatusEventBatch {
+    private List<PaymentStatusEvent> events;
+
+    // Constructors
+    public PaymentStatusEventBatch() {}
+
+    // Getters and Setters
+    public List<PaymentStatusEvent> getEvents() { return events; }
+    public void setEvents(List<PaymentStatusEvent> events) { this.events = events; }
+}
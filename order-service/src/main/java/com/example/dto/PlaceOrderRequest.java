@@ -1,6 +1,5 @@
 package com.example.dto;
 
-import java.math.BigDecimal;
 import java.util.List;
 
 public class PlaceOrderRequest {
@@ -21,11 +20,10 @@ public class PlaceOrderRequest {
     public List<OrderItemRequest> getItems() { return items; }
     public void setItems(List<OrderItemRequest> items) { this.items = items; }
 
+    // Name and price are taken from the product catalog, not from the request
     public static class OrderItemRequest {
         private Long productId;
-        private String productName;
         private Integer quantity;
-        private BigDecimal unitPrice;
 
         // Constructors
         public OrderItemRequest() {}
@@ -34,13 +32,7 @@ public class PlaceOrderRequest {
         public Long getProductId() { return productId; }
         public void setProductId(Long productId) { this.productId = productId; }
 
-        public String getProductName() { return productName; }
-        public void setProductName(String productName) { this.productName = productName; }
-
         public Integer getQuantity() { return quantity; }
         public void setQuantity(Integer quantity) { this.quantity = quantity; }
-
-        public BigDecimal getUnitPrice() { return unitPrice; }
-        public void setUnitPrice(BigDecimal unitPrice) { this.unitPrice = unitPrice; }
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Price, name and status of a product as product-service last reported them. {@code updatedAt} doubles as
+ * the version: a copy with an older timestamp never replaces a newer one.
+ */
+public class ProductPrice {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private String status;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public ProductPrice() {}
+
+    public ProductPrice(Long id, String name, BigDecimal price, String status, LocalDateTime updatedAt) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,22 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * Body of the product-prices webhook from product-service: current price and name of recently created or
+ * updated products, and the ids of deleted ones.
+ */
+public class ProductPriceNotification {
+    private List<ProductPrice> products;
+    private List<Long> removedIds;
+
+    // Constructors
+    public ProductPriceNotification() {}
+
+    // Getters and Setters
+    public List<ProductPrice> getProducts() { return products; }
+    public void setProducts(List<ProductPrice> products) { this.products = products; }
+
+    public List<Long> getRemovedIds() { return removedIds; }
+    public void setRemovedIds(List<Long> removedIds) { this.removedIds = removedIds; }
+}
@@ -6,7 +6,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    @Index(name = "idx_orders_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_orders_status_created_at_id", columnList = "status, created_at, id"),
+    @Index(name = "idx_orders_status_expires_at", columnList = "status, expires_at")
+})
 public class Order {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -41,6 +45,13 @@ public class Order {
     
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
+    
+    @Column(name = "stock_reservation_id")
+    private Long stockReservationId;
+    
+    // Sequence of the last payment-service event applied; older events are ignored
+    @Column(name = "payment_event_sequence")
+    private Long paymentEventSequence;
 
     // Constructors
     public Order() {}
@@ -84,8 +95,25 @@ public class Order {
     
     public LocalDateTime getExpiresAt() { return expiresAt; }
     public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    public Long getStockReservationId() { return stockReservationId; }
+    public void setStockReservationId(Long stockReservationId) { this.stockReservationId = stockReservationId; }
+    
+    public Long getPaymentEventSequence() { return paymentEventSequence; }
+    public void setPaymentEventSequence(Long paymentEventSequence) { this.paymentEventSequence = paymentEventSequence; }
 
     public enum OrderStatus {
-        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED
+        PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED;
+        
+        // Orders only move forward; DELIVERED and CANCELLED are final
+        public boolean canTransitionTo(OrderStatus target) {
+            return switch (this) {
+                case PENDING -> target == CONFIRMED || target == CANCELLED;
+                case CONFIRMED -> target == PROCESSING || target == SHIPPED || target == CANCELLED;
+                case PROCESSING -> target == SHIPPED || target == CANCELLED;
+                case SHIPPED -> target == DELIVERED;
+                case DELIVERED, CANCELLED -> false;
+            };
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A payment-service event that has been applied to its order, written in the same transaction as the
+ * status change. Redeliveries of the same event id are recognised and ignored.
+ */
+@Entity
+@Table(name = "processed_payment_events",
+    uniqueConstraints = @UniqueConstraint(name = "uk_processed_payment_events_event_id", columnNames = "event_id"),
+    indexes = @Index(name = "idx_processed_payment_events_processed_at", columnList = "processed_at"))
+public class ProcessedPaymentEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_id", nullable = false, length = 64)
+    private String eventId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    // Constructors
+    public ProcessedPaymentEvent() {}
+
+    public ProcessedPaymentEvent(String eventId, Long orderId) {
+        this.eventId = eventId;
+        this.orderId = orderId;
+        this.processedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public LocalDateTime getProcessedAt() { return processedAt; }
+    public void setProcessedAt(LocalDateTime processedAt) { this.processedAt = processedAt; }
+}
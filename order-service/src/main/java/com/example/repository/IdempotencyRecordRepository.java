@@ -0,0 +1,42 @@
+package com.example.repository;
+
+import com.example.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Fails once another request has taken the record over, which rolls back the order being saved with it
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.orderId = :orderId WHERE r.id = :id AND r.claimToken = :token AND r.orderId IS NULL")
+    int attachOrder(@Param("id") Long id, @Param("token") String token, @Param("orderId") Long orderId);
+
+    // Only a placement that died before saving its order can be taken over; one with an order is answered from it
+    @Modifying
+    @Transactional
+    @Query("UPDATE IdempotencyRecord r SET r.claimToken = :token, r.leaseUntil = :leaseUntil " +
+           "WHERE r.id = :id AND r.status = com.example.entity.IdempotencyRecord$Status.IN_PROGRESS " +
+           "AND r.orderId IS NULL AND (r.leaseUntil IS NULL OR r.leaseUntil < :now)")
+    int takeOver(@Param("id") Long id, @Param("token") String token,
+                 @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.claimToken = :token")
+    int deleteClaim(@Param("id") Long id, @Param("token") String token);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
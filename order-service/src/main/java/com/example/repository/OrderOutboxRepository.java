@@ -0,0 +1,42 @@
+package com.example.repository;
+
+import com.example.entity.OrderOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEvent, Long> {
+    @Query("SELECT e.id FROM OrderOutboxEvent e WHERE e.status = com.example.entity.OrderOutboxEvent$Status.PENDING " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt ASC, e.id ASC")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Takes the rows that are still due under one token and leases them, so two relays never deliver the same row
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderOutboxEvent e SET e.claimToken = :token, e.nextAttemptAt = :leaseUntil, e.attempts = e.attempts + 1 " +
+           "WHERE e.id IN :ids AND e.status = com.example.entity.OrderOutboxEvent$Status.PENDING AND e.nextAttemptAt <= :now")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token,
+              @Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    List<OrderOutboxEvent> findByClaimToken(String claimToken);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OrderOutboxEvent e SET e.status = com.example.entity.OrderOutboxEvent$Status.SENT, e.sentAt = :sentAt, " +
+           "e.claimToken = NULL, e.lastError = NULL WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("sentAt") LocalDateTime sentAt);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OrderOutboxEvent e WHERE e.status = com.example.entity.OrderOutboxEvent$Status.SENT AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -1,12 +1,21 @@
 package com.example.repository;
 
+import com.example.dto.DailyAmount;
+import com.example.dto.OrderStatisticsRow;
+import com.example.dto.OrderStatusTotal;
+import com.example.dto.OrderTransitionView;
+import com.example.dto.PaymentMethodAmount;
 import com.example.entity.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,6 +23,8 @@ import java.util.Optional;
 public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserId(Long userId);
     List<Order> findByStatus(Order.OrderStatus status);
+    Slice<Order> findByStatus(Order.OrderStatus status, Pageable pageable);
+    Slice<Order> findAllBy(Pageable pageable);
     Optional<Order> findByOrderNumber(String orderNumber);
     
     @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.status = :status")
@@ -26,4 +37,54 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     Long countByUserId(@Param("userId") Long userId);
     
     List<Order> findByStatusAndExpiresAtBefore(Order.OrderStatus status, LocalDateTime expiresAt);
-}
\ No newline at end of file
+    
+    @Query("SELECT o.id AS id, o.status AS status, o.paymentEventSequence AS paymentEventSequence, " +
+           "o.createdAt AS createdAt, o.paymentMethod AS paymentMethod, o.totalAmount AS totalAmount, " +
+           "o.stockReservationId AS stockReservationId FROM Order o WHERE o.id IN :ids")
+    List<OrderTransitionView> findTransitionViews(@Param("ids") Collection<Long> ids);
+    
+    // Compare-and-set: only applies if the order is still in the status the caller saw and has not applied
+    // this or a later payment event yet
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.paymentEventSequence = :sequence, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = :from " +
+           "AND (o.paymentEventSequence IS NULL OR o.paymentEventSequence < :sequence)")
+    int transitionStatus(@Param("id") Long id, @Param("from") Order.OrderStatus from, @Param("to") Order.OrderStatus to,
+                         @Param("sequence") Long sequence, @Param("now") LocalDateTime now);
+    
+    // Same for events without a sequence: only the status is compared
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now WHERE o.id = :id AND o.status = :from")
+    int transitionStatus(@Param("id") Long id, @Param("from") Order.OrderStatus from, @Param("to") Order.OrderStatus to,
+                         @Param("now") LocalDateTime now);
+    
+    @Query("SELECT o.status AS status, o.paymentMethod AS paymentMethod, CAST(o.createdAt AS LocalDate) AS day, " +
+           "COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount FROM Order o " +
+           "GROUP BY o.status, o.paymentMethod, CAST(o.createdAt AS LocalDate)")
+    List<OrderStatisticsRow> aggregateForStatistics();
+    
+    @Query("SELECT o.status AS status, COUNT(o) AS orderCount, SUM(o.totalAmount) AS totalAmount " +
+           "FROM Order o GROUP BY o.status")
+    List<OrderStatusTotal> sumByStatus();
+    
+    @Query("SELECT CAST(o.createdAt AS LocalDate) AS day, SUM(o.totalAmount) AS totalAmount FROM Order o " +
+           "WHERE o.status IN :statuses AND o.createdAt >= :since " +
+           "GROUP BY CAST(o.createdAt AS LocalDate) ORDER BY CAST(o.createdAt AS LocalDate)")
+    List<DailyAmount> sumByDay(@Param("statuses") Collection<Order.OrderStatus> statuses, @Param("since") LocalDateTime since);
+    
+    @Query("SELECT o.paymentMethod AS paymentMethod, SUM(o.totalAmount) AS totalAmount FROM Order o " +
+           "WHERE o.status IN :statuses AND o.paymentMethod IS NOT NULL GROUP BY o.paymentMethod")
+    List<PaymentMethodAmount> sumByPaymentMethod(@Param("statuses") Collection<Order.OrderStatus> statuses);
+    
+    // Keyset pagination, see KeysetCursor (common-lib)
+    @Query("SELECT o FROM Order o WHERE o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findSliceAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.status = :status AND o.createdAt <= :createdAt " +
+           "AND (o.createdAt < :createdAt OR (o.createdAt = :createdAt AND o.id < :id)) " +
+           "ORDER BY o.createdAt DESC, o.id DESC")
+    Slice<Order> findSliceByStatusAfter(@Param("status") Order.OrderStatus status, @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,24 @@
+package com.example.repository;
+
+import com.example.entity.ProcessedPaymentEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProcessedPaymentEventRepository extends JpaRepository<ProcessedPaymentEvent, Long> {
+    @Query("SELECT e.eventId FROM ProcessedPaymentEvent e WHERE e.eventId IN :eventIds")
+    List<String> findProcessedEventIds(@Param("eventIds") Collection<String> eventIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM ProcessedPaymentEvent e WHERE e.processedAt < :before")
+    int deleteProcessedBefore(@Param("before") LocalDateTime before);
+}
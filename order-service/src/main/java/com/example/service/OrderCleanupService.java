@@ -9,6 +9,7 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -19,6 +20,12 @@ public class OrderCleanupService {
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private ProductStockClient productStockClient;
+
     @Scheduled(fixedRate = 300000) // Run every 5 minutes
     public void cancelExpiredOrders() {
         logger.info("Starting expired orders cleanup job");
@@ -28,16 +35,26 @@ public class OrderCleanupService {
             Order.OrderStatus.PENDING, now);
         
         int cancelledCount = 0;
+        List<Long> reservationIds = new ArrayList<>();
         for (Order order : expiredOrders) {
-            order.setStatus(Order.OrderStatus.CANCELLED);
-            order.setUpdatedAt(LocalDateTime.now());
-            orderRepository.save(order);
+            // Only if still PENDING: an order paid since it was read keeps its status and its stock
+            if (!orderService.transitionStatus(order.getId(), OrderStatisticsService.contributionOf(order),
+                    order.getStockReservationId(), Order.OrderStatus.CANCELLED)) {
+                logger.info("Skipped expired order {}: status changed while cleaning up", order.getOrderNumber());
+                continue;
+            }
+            if (order.getStockReservationId() != null) {
+                reservationIds.add(order.getStockReservationId());
+            }
             cancelledCount++;
             
             logger.info("Cancelled expired order: {} (created: {}, expired: {})", 
                 order.getOrderNumber(), order.getCreatedAt(), order.getExpiresAt());
         }
         
+        // One call for the whole batch; product-service's expiry sweep covers anything this misses
+        productStockClient.releaseAll(reservationIds);
+        
         if (cancelledCount > 0) {
             logger.info("Cancelled {} expired orders", cancelledCount);
         }
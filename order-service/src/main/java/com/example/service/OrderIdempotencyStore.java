@@ -0,0 +1,285 @@
+package com.example.service;
+
+import com.example.common.exception.BusinessException;
+import com.example.dto.OrderResponse;
+import com.example.entity.IdempotencyRecord;
+import com.example.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+
+/**
+ * Idempotency-Key handling for order placement. The first request with a key runs; repeats with the same key
+ * and body get its {@link OrderResponse} back, and a repeat arriving while it still runs waits for it instead
+ * of placing a second order.
+ * <p>
+ * Two levels: a Caffeine map of per-key futures answers repeats hitting the same instance without touching
+ * MySQL, and an {@code idempotency_records} row (unique per user and key) covers other instances and
+ * restarts. A placement that throws leaves no record behind, so the client can retry it with the same key.
+ * <p>
+ * An IN_PROGRESS row is held under a claim token for {@code orders.idempotency.lease}, not the whole TTL. The
+ * order id is written into it in the transaction that saves the order. If the lease runs out, a repeat either
+ * rebuilds the response from that order or, when no order was saved, takes the key over and places it;
+ * a placement that was taken over cannot attach its order any more, so that order is rolled back.
+ */
+@Service
+public class OrderIdempotencyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdempotencyStore.class);
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.idempotency.ttl:24h}")
+    private Duration ttl;
+
+    @Value("${orders.idempotency.max-size:100000}")
+    private long maxSize;
+
+    // How long a repeat waits for the first request before giving up
+    @Value("${orders.idempotency.wait-timeout:30s}")
+    private Duration waitTimeout;
+
+    // Must outlast a placement, or a slow one could be taken over and rolled back
+    @Value("${orders.idempotency.lease:2m}")
+    private Duration lease;
+
+    private Cache<String, Attempt> attempts;
+
+    private record Attempt(String requestHash, CompletableFuture<OrderResponse> result) {}
+
+    /**
+     * An order placement that reports its order id from inside the transaction that saves the order.
+     */
+    @FunctionalInterface
+    public interface Placement {
+        OrderResponse place(LongConsumer orderSaved);
+    }
+
+    @PostConstruct
+    void init() {
+        attempts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, attempts, "order.idempotency");
+    }
+
+    /**
+     * Runs {@code placement} once per user and key. {@code placedOrder} builds the response of an order whose
+     * placement saved it but did not record its response.
+     *
+     * @throws BusinessException if the key was used for a different request, or the first request with it
+     *                           is still running after {@code orders.idempotency.wait-timeout}
+     */
+    public OrderResponse execute(Long userId, String idempotencyKey, Object request, Placement placement,
+                                 Function<Long, OrderResponse> placedOrder) {
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        String cacheKey = userId + ":" + idempotencyKey;
+        Attempt attempt = new Attempt(requestHash, new CompletableFuture<>());
+        Attempt existing = attempts.asMap().putIfAbsent(cacheKey, attempt);
+        if (existing != null) {
+            checkSameRequest(existing.requestHash(), requestHash);
+            return await(existing.result());
+        }
+        try {
+            OrderResponse response = claimAndRun(userId, idempotencyKey, requestHash, placement, placedOrder);
+            attempt.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            attempts.asMap().remove(cacheKey, attempt);
+            attempt.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.idempotency.sweep-interval-ms:600000}")
+    public void purgeExpired() {
+        int deleted = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency records", deleted);
+        }
+    }
+
+    private OrderResponse claimAndRun(Long userId, String idempotencyKey, String requestHash,
+                                      Placement placement, Function<Long, OrderResponse> placedOrder) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            IdempotencyRecord record = claim(userId, idempotencyKey, requestHash);
+            if (record != null) {
+                return run(record, placement);
+            }
+            // Claimed by another instance (or before a restart): wait for its outcome
+            while (true) {
+                Optional<IdempotencyRecord> current =
+                        idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
+                if (current.isEmpty()) {
+                    break;
+                }
+                IdempotencyRecord owner = current.get();
+                if (owner.getExpiresAt().isBefore(LocalDateTime.now())) {
+                    // Expired but not purged yet: the key is free again
+                    idempotencyRecordRepository.delete(owner);
+                    break;
+                }
+                checkSameRequest(owner.getRequestHash(), requestHash);
+                if (owner.getStatus() == IdempotencyRecord.Status.COMPLETED) {
+                    return fromJson(owner.getResponseBody());
+                }
+                LocalDateTime now = LocalDateTime.now();
+                if (owner.getLeaseUntil() == null || owner.getLeaseUntil().isBefore(now)) {
+                    // The placement died or stalled: answer from its order, or place it here if it saved none
+                    if (owner.getOrderId() != null) {
+                        OrderResponse response = placedOrder.apply(owner.getOrderId());
+                        complete(owner, response);
+                        return response;
+                    }
+                    String token = UUID.randomUUID().toString();
+                    LocalDateTime leaseUntil = now.plus(lease);
+                    if (idempotencyRecordRepository.takeOver(owner.getId(), token, now, leaseUntil) == 1) {
+                        owner.setClaimToken(token);
+                        owner.setLeaseUntil(leaseUntil);
+                        return run(owner, placement);
+                    }
+                    continue;
+                }
+                if (System.nanoTime() > deadline) {
+                    throw stillRunning();
+                }
+                sleep();
+            }
+        }
+    }
+
+    private IdempotencyRecord claim(Long userId, String idempotencyKey, String requestHash) {
+        // Usual replay case; the unique key still settles a race between two inserts
+        if (idempotencyRecordRepository.findByUserIdAndIdempotencyKey(userId, idempotencyKey).isPresent()) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord(userId, idempotencyKey, requestHash, now.plus(ttl));
+        record.setClaimToken(UUID.randomUUID().toString());
+        record.setLeaseUntil(now.plus(lease));
+        try {
+            return idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private OrderResponse run(IdempotencyRecord record, Placement placement) {
+        OrderResponse response;
+        try {
+            response = placement.place(orderId -> {
+                if (idempotencyRecordRepository.attachOrder(record.getId(), record.getClaimToken(), orderId) == 0) {
+                    throw new BusinessException("A request with this Idempotency-Key has taken over, retry later");
+                }
+            });
+        } catch (RuntimeException e) {
+            // Placement failures happen before an order is kept, so the key may be used again
+            idempotencyRecordRepository.deleteClaim(record.getId(), record.getClaimToken());
+            throw e;
+        }
+        complete(record, response);
+        return response;
+    }
+
+    private void complete(IdempotencyRecord record, OrderResponse response) {
+        try {
+            record.setStatus(IdempotencyRecord.Status.COMPLETED);
+            record.setOrderId(response.getId());
+            record.setResponseBody(objectMapper.writeValueAsString(response));
+            idempotencyRecordRepository.save(record);
+        } catch (Exception e) {
+            // The order id is already recorded: once the lease runs out a repeat rebuilds the response from it
+            logger.error("Failed to record idempotent response for order {}", response.getId(), e);
+        }
+    }
+
+    private OrderResponse await(CompletableFuture<OrderResponse> result) {
+        try {
+            return result.get(waitTimeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw stillRunning();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Order placement interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+    }
+
+    private static void checkSameRequest(String recordedHash, String requestHash) {
+        if (!recordedHash.equals(requestHash)) {
+            throw new BusinessException("Idempotency-Key has already been used for a different request");
+        }
+    }
+
+    private static BusinessException stillRunning() {
+        return new BusinessException("A request with this Idempotency-Key is still being processed, retry later");
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(POLL_INTERVAL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Order placement interrupted");
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to hash order request", e);
+        }
+    }
+
+    private OrderResponse fromJson(String responseBody) {
+        try {
+            return objectMapper.readValue(responseBody, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable idempotent response", e);
+        }
+    }
+}
@@ -0,0 +1,307 @@
+package com.example.service;
+
+import com.example.common.exception.BusinessException;
+import com.example.dto.CreatePaymentResult;
+import com.example.dto.OrderTransitionView;
+import com.example.entity.Order;
+import com.example.entity.OrderOutboxEvent;
+import com.example.repository.OrderOutboxRepository;
+import com.example.repository.OrderRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Delivers {@link OrderOutboxEvent}s: payment-creation requests queued with their order, and stock commits
+ * queued with its confirmation. Due rows are leased under a claim token, split into batches of
+ * {@code orders.outbox.batch-size} and delivered up to {@code orders.outbox.parallelism} batches at a time;
+ * payment requests go to payment-service's batch endpoint, stock commits to product-service one by one.
+ * <p>
+ * A failed payment batch is retried with exponential backoff. After {@code orders.outbox.max-attempts}, or
+ * when payment-service rejects a line, the row is marked FAILED and its order cancelled, as placement used to
+ * do when the synchronous call failed. Requests whose order is no longer PENDING when their batch is picked up
+ * are dropped, so a late retry never creates a payment for a cancelled order. A stock commit is retried until product-service acknowledges it, since
+ * the order is already paid and an unacknowledged hold would be released by the expiry sweep; only an
+ * outright refusal marks it FAILED. A relay that dies mid-delivery leaves its rows leased; they become due
+ * again when the lease runs out and are resent, which both services treat as a repeat.
+ */
+@Service
+public class OrderOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderOutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private PaymentServiceClient paymentServiceClient;
+
+    @Autowired
+    private ProductStockClient productStockClient;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${orders.outbox.parallelism:4}")
+    private int parallelism;
+
+    @Value("${orders.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${orders.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${orders.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    // Must outlast a delivery (HTTP read timeout included), or a slow batch could be picked up twice
+    @Value("${orders.outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${orders.outbox.retention:7d}")
+    private Duration retention;
+
+    private ExecutorService executor;
+    private Counter sent;
+    private Counter retried;
+    private Counter failed;
+    private Timer deliveryLag;
+
+    @PostConstruct
+    void init() {
+        executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("order-outbox-"));
+        sent = Counter.builder("order.outbox.sent").description("Outbox events delivered").register(meterRegistry);
+        retried = Counter.builder("order.outbox.retries").description("Outbox deliveries scheduled for retry").register(meterRegistry);
+        failed = Counter.builder("order.outbox.failed").description("Outbox events given up on").register(meterRegistry);
+        deliveryLag = Timer.builder("order.outbox.delivery.lag")
+                .description("Time from an order's commit until its payment request is delivered")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.poll-interval-ms:500}")
+    public void relay() {
+        // Keep draining while rounds come back full instead of waiting a poll interval each
+        while (relayRound() == batchSize * parallelism) {
+            logger.debug("Outbox backlog remains, relaying next round");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        int deleted = orderOutboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            logger.info("Purged {} delivered outbox events", deleted);
+        }
+    }
+
+    private int relayRound() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = orderOutboxRepository.findDueIds(now, PageRequest.of(0, batchSize * parallelism));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        if (orderOutboxRepository.claim(dueIds, token, now, now.plus(lease)) == 0) {
+            return dueIds.size();
+        }
+        List<OrderOutboxEvent> paymentEvents = new ArrayList<>();
+        List<OrderOutboxEvent> stockCommitEvents = new ArrayList<>();
+        for (OrderOutboxEvent event : orderOutboxRepository.findByClaimToken(token)) {
+            (event.getType() == OrderOutboxEvent.Type.STOCK_COMMIT_REQUESTED ? stockCommitEvents : paymentEvents).add(event);
+        }
+        List<CompletableFuture<Void>> deliveries = new ArrayList<>();
+        for (int from = 0; from < paymentEvents.size(); from += batchSize) {
+            List<OrderOutboxEvent> batch = paymentEvents.subList(from, Math.min(from + batchSize, paymentEvents.size()));
+            deliveries.add(CompletableFuture.runAsync(() -> deliver(batch), executor));
+        }
+        for (int from = 0; from < stockCommitEvents.size(); from += batchSize) {
+            List<OrderOutboxEvent> batch = stockCommitEvents.subList(from, Math.min(from + batchSize, stockCommitEvents.size()));
+            deliveries.add(CompletableFuture.runAsync(() -> deliverStockCommits(batch), executor));
+        }
+        CompletableFuture.allOf(deliveries.toArray(new CompletableFuture[0])).join();
+        return dueIds.size();
+    }
+
+    private void deliver(List<OrderOutboxEvent> batch) {
+        List<Long> cancelledOrderIds = new ArrayList<>();
+        try {
+            // A request that waited out its retries behind an order that has since been cancelled or expired
+            // must not create a payment after all; those rows are done without being sent
+            Set<Long> orderIds = new HashSet<>();
+            for (OrderOutboxEvent event : batch) {
+                orderIds.add(event.getOrderId());
+            }
+            Set<Long> pendingOrderIds = new HashSet<>();
+            for (OrderTransitionView view : orderRepository.findTransitionViews(orderIds)) {
+                if (view.getStatus() == Order.OrderStatus.PENDING) {
+                    pendingOrderIds.add(view.getId());
+                }
+            }
+            List<Long> sentIds = new ArrayList<>();
+            List<OrderOutboxEvent> live = new ArrayList<>(batch.size());
+            for (OrderOutboxEvent event : batch) {
+                if (pendingOrderIds.contains(event.getOrderId())) {
+                    live.add(event);
+                } else {
+                    logger.info("Order {} is no longer pending, dropping its payment request", event.getOrderId());
+                    sentIds.add(event.getId());
+                }
+            }
+
+            List<Map<String, Object>> payments = new ArrayList<>(live.size());
+            for (OrderOutboxEvent event : live) {
+                payments.add(objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE));
+            }
+            Map<Long, CreatePaymentResult> results = new HashMap<>();
+            if (!payments.isEmpty()) {
+                for (CreatePaymentResult result : paymentServiceClient.createPayments(payments)) {
+                    results.put(result.getOrderId(), result);
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<OrderOutboxEvent> unsent = new ArrayList<>();
+            for (OrderOutboxEvent event : live) {
+                CreatePaymentResult result = results.get(event.getOrderId());
+                if (result == null) {
+                    retryOrGiveUp(event, "No result returned for order " + event.getOrderId(), cancelledOrderIds);
+                    unsent.add(event);
+                } else if (result.getOutcome() == CreatePaymentResult.Outcome.REJECTED) {
+                    giveUp(event, result.getError(), cancelledOrderIds);
+                    unsent.add(event);
+                } else {
+                    sentIds.add(event.getId());
+                    deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+                }
+            }
+            if (!sentIds.isEmpty()) {
+                orderOutboxRepository.markSent(sentIds, now);
+                sent.increment(sentIds.size());
+            }
+            orderOutboxRepository.saveAll(unsent);
+        } catch (Exception e) {
+            logger.warn("Payment creation batch of {} orders failed, will retry: {}", batch.size(), e.toString());
+            for (OrderOutboxEvent event : batch) {
+                retryOrGiveUp(event, e.toString(), cancelledOrderIds);
+            }
+            orderOutboxRepository.saveAll(batch);
+        }
+
+        for (Long orderId : cancelledOrderIds) {
+            try {
+                orderService.cancelUnpaidOrder(orderId);
+                logger.info("Order {} cancelled due to payment creation failure", orderId);
+            } catch (Exception e) {
+                logger.error("Failed to cancel order {} after payment creation failure", orderId, e);
+            }
+        }
+    }
+
+    private void deliverStockCommits(List<OrderOutboxEvent> batch) {
+        List<Long> sentIds = new ArrayList<>();
+        List<OrderOutboxEvent> unsent = new ArrayList<>();
+        for (OrderOutboxEvent event : batch) {
+            try {
+                Long reservationId = ((Number) objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE)
+                        .get("reservationId")).longValue();
+                productStockClient.commit(reservationId);
+                sentIds.add(event.getId());
+            } catch (BusinessException e) {
+                event.setStatus(OrderOutboxEvent.Status.FAILED);
+                event.setClaimToken(null);
+                event.setLastError(truncate(e.getMessage()));
+                failed.increment();
+                logger.error("Product-service refused the stock commit for paid order {}: {}",
+                        event.getOrderId(), e.getMessage());
+                unsent.add(event);
+            } catch (Exception e) {
+                logger.warn("Stock commit for order {} failed, will retry: {}", event.getOrderId(), e.toString());
+                scheduleRetry(event, e.toString());
+                unsent.add(event);
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            orderOutboxRepository.markSent(sentIds, LocalDateTime.now());
+            sent.increment(sentIds.size());
+        }
+        orderOutboxRepository.saveAll(unsent);
+    }
+
+    private void retryOrGiveUp(OrderOutboxEvent event, String error, List<Long> cancelledOrderIds) {
+        if (event.getAttempts() >= maxAttempts) {
+            giveUp(event, error, cancelledOrderIds);
+            return;
+        }
+        scheduleRetry(event, error);
+    }
+
+    private void scheduleRetry(OrderOutboxEvent event, String error) {
+        long backoffMillis = Math.min(maxBackoff.toMillis(),
+                initialBackoff.toMillis() << Math.min(event.getAttempts() - 1, 20));
+        // +-20% jitter so rows that failed together do not all come due together
+        backoffMillis = (long) (backoffMillis * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+        event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+        event.setClaimToken(null);
+        event.setLastError(truncate(error));
+        retried.increment();
+    }
+
+    private void giveUp(OrderOutboxEvent event, String error, List<Long> cancelledOrderIds) {
+        event.setStatus(OrderOutboxEvent.Status.FAILED);
+        event.setClaimToken(null);
+        event.setLastError(truncate(error));
+        failed.increment();
+        logger.error("Giving up on payment creation for order {} after {} attempts: {}",
+                event.getOrderId(), event.getAttempts(), error);
+        cancelledOrderIds.add(event.getOrderId());
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
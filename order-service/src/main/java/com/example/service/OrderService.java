@@ -2,37 +2,58 @@ package com.example.service;
 
 import com.example.entity.Order;
 import com.example.entity.OrderItem;
+import com.example.entity.OrderOutboxEvent;
+import com.example.repository.OrderOutboxRepository;
 import com.example.repository.OrderRepository;
 import com.example.dto.CreateOrderRequest;
 import com.example.dto.PlaceOrderRequest;
 import com.example.dto.OrderResponse;
+import com.example.dto.ProductPrice;
+import com.example.dto.OrderTransitionView;
+import com.example.common.security.JwtClaims;
 import com.example.common.security.JwtUtil;
 import com.example.common.exception.ResourceNotFoundException;
 import com.example.common.exception.BusinessException;
+import com.example.common.response.KeysetCursor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.JwtException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.UUID;
 import java.util.Map;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.HashSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 
 @Service
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
-    private static final String USER_SERVICE_URL = "http://localhost:8081";
-    private static final String AUTH_SERVICE_URL = "http://localhost:8084";
-    private static final String PAYMENT_SERVICE_URL = "http://localhost:8085";
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    private static final String UNKNOWN_CUSTOMER = "Unknown Customer";
+    private static final int MAX_TRANSITION_ATTEMPTS = 5;
 
     @Autowired
     private OrderRepository orderRepository;
@@ -41,7 +62,38 @@ public class OrderService {
     private JwtUtil jwtUtil;
     
     @Autowired
-    private RestTemplate restTemplate;
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserIdentityCache userIdentityCache;
+
+    @Autowired
+    private OrderStatisticsService orderStatisticsService;
+
+    @Autowired
+    private ProductStockClient productStockClient;
+
+    @Autowired
+    private ProductPriceSnapshot productPriceSnapshot;
+
+    @Autowired
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    @Value("${orders.placement.reserve-stock:true}")
+    private boolean reserveStock;
+
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    private AsyncTaskExecutor remoteCallExecutor;
+
+    @Value("${orders.placement.remote-call-timeout:5s}")
+    private Duration remoteCallTimeout;
 
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
@@ -60,38 +112,115 @@ public class OrderService {
         return orderRepository.findByStatus(status);
     }
 
+    /**
+     * Newest-first slice of orders, optionally filtered by status; with a {@link KeysetCursor} it seeks past
+     * the cursor instead of using the page offset.
+     */
+    public Slice<Order> getOrderSlice(Order.OrderStatus status, int page, int size,
+                                      LocalDateTime afterCreatedAt, Long afterId) {
+        if (afterCreatedAt != null && afterId != null) {
+            PageRequest limit = PageRequest.of(0, size);
+            return status == null
+                    ? orderRepository.findSliceAfter(afterCreatedAt, afterId, limit)
+                    : orderRepository.findSliceByStatusAfter(status, afterCreatedAt, afterId, limit);
+        }
+        PageRequest pageable = PageRequest.of(page, size, NEWEST_FIRST);
+        return status == null ? orderRepository.findAllBy(pageable) : orderRepository.findByStatus(status, pageable);
+    }
+
     public Order createOrder(Order order) {
-        // Generate unique order number
-        order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
-        order.setStatus(Order.OrderStatus.PENDING);
-        order.setCreatedAt(LocalDateTime.now());
-        order.setUpdatedAt(LocalDateTime.now());
-        // Set expiration time to 10 minutes from now
-        order.setExpiresAt(LocalDateTime.now().plusMinutes(10));
-        return orderRepository.save(order);
+        prepareNewOrder(order);
+        Order saved = orderRepository.save(order);
+        orderStatisticsService.recordCreated(saved);
+        return saved;
+    }
+
+    /**
+     * Cancels an order whose payment could not be created and gives its stock back. Orders that already
+     * moved on from PENDING (paid, expired, cancelled by the user) are left alone.
+     */
+    public void cancelUnpaidOrder(Long id) {
+        OrderTransitionView order = findTransitionView(id);
+        if (order != null && order.getStatus() == Order.OrderStatus.PENDING
+                && transitionStatus(id, OrderStatisticsService.contributionOf(order), order.getStockReservationId(),
+                        Order.OrderStatus.CANCELLED)) {
+            settleStock(order.getStockReservationId(), Order.OrderStatus.CANCELLED);
+        }
     }
 
     public Order updateOrder(Long id, Order orderDetails) {
         Order order = getOrderById(id);
+        OrderStatisticsService.Contribution before = OrderStatisticsService.contributionOf(order);
         
         order.setShippingAddress(orderDetails.getShippingAddress());
         order.setPaymentMethod(orderDetails.getPaymentMethod());
         order.setTotalAmount(orderDetails.getTotalAmount());
         order.setUpdatedAt(LocalDateTime.now());
         
-        return orderRepository.save(order);
+        Order saved = orderRepository.save(order);
+        orderStatisticsService.recordUpdated(before, saved);
+        return saved;
     }
 
+    /**
+     * Moves the order to {@code status} if {@link Order.OrderStatus#canTransitionTo} allows it. The change is a
+     * conditional UPDATE on the status that was read, so it never overwrites a concurrent change (a payment
+     * event, the expiry job); in that case the order is read again and the request decided again.
+     *
+     * @throws BusinessException if the order cannot move from its current status to {@code status}
+     */
     public Order updateOrderStatus(Long id, Order.OrderStatus status) {
-        Order order = getOrderById(id);
-        order.setStatus(status);
-        order.setUpdatedAt(LocalDateTime.now());
-        return orderRepository.save(order);
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+            OrderTransitionView order = findTransitionView(id);
+            if (order == null) {
+                throw new ResourceNotFoundException("Order not found with id: " + id);
+            }
+            if (order.getStatus() == status) {
+                return getOrderById(id);
+            }
+            if (!order.getStatus().canTransitionTo(status)) {
+                throw new BusinessException("Cannot change order status from " + order.getStatus() + " to " + status);
+            }
+            if (transitionStatus(id, OrderStatisticsService.contributionOf(order), order.getStockReservationId(), status)) {
+                settleStock(order.getStockReservationId(), status);
+                return getOrderById(id);
+            }
+        }
+        throw new BusinessException("Order " + id + " is being updated concurrently, please retry");
+    }
+
+    /**
+     * Compare-and-set status change from {@code before.status()}; statistics are updated only if it applied.
+     * A confirmation queues its stock commit in the same transaction; releasing stock is left to the caller,
+     * which may do it in a batch.
+     *
+     * @return false if the order was no longer in {@code before.status()}
+     */
+    boolean transitionStatus(Long id, OrderStatisticsService.Contribution before, Long stockReservationId,
+                             Order.OrderStatus status) {
+        boolean applied = Boolean.TRUE.equals(transactionTemplate.execute(tx -> {
+            if (orderRepository.transitionStatus(id, before.status(), status, LocalDateTime.now()) == 0) {
+                return false;
+            }
+            queueStockCommit(id, stockReservationId, status);
+            return true;
+        }));
+        if (applied) {
+            orderStatisticsService.recordUpdated(before, before.withStatus(status));
+        }
+        return applied;
+    }
+
+    private OrderTransitionView findTransitionView(Long id) {
+        List<OrderTransitionView> views = orderRepository.findTransitionViews(List.of(id));
+        return views.isEmpty() ? null : views.get(0);
     }
 
     public void deleteOrder(Long id) {
         Order order = getOrderById(id);
+        OrderStatisticsService.Contribution before = OrderStatisticsService.contributionOf(order);
         orderRepository.delete(order);
+        orderStatisticsService.recordDeleted(before);
     }
 
     public Long getOrderCountByUserId(Long userId) {
@@ -109,15 +238,10 @@ public class OrderService {
         BigDecimal totalAmount = BigDecimal.ZERO;
         List<OrderItem> orderItems = new ArrayList<>();
         
+        Map<Long, ProductPrice> prices = resolvePrices(request.getItems() == null ? List.of()
+                : request.getItems().stream().map(CreateOrderRequest.OrderItemRequest::getProductId).toList());
         for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            OrderItem item = new OrderItem();
-            item.setOrder(order);
-            item.setProductId(itemRequest.getProductId());
-            item.setProductName(itemRequest.getProductName());
-            item.setQuantity(itemRequest.getQuantity());
-            item.setUnitPrice(itemRequest.getUnitPrice());
-            item.setTotalPrice(itemRequest.getUnitPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
-            
+            OrderItem item = pricedItem(order, itemRequest.getProductId(), itemRequest.getQuantity(), prices);
             orderItems.add(item);
             totalAmount = totalAmount.add(item.getTotalPrice());
         }
@@ -125,38 +249,29 @@ public class OrderService {
         order.setTotalAmount(totalAmount);
         order.setOrderItems(orderItems);
         
-        // Save order
-        Order savedOrder = createOrder(order);
-        
-        // Create payment via REST call to payment service
-        try {
-            RestTemplate restTemplate = new RestTemplate();
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            Map<String, Object> paymentRequest = new HashMap<>();
-            paymentRequest.put("orderId", savedOrder.getId());
-            paymentRequest.put("userId", savedOrder.getUserId());
-            paymentRequest.put("amount", savedOrder.getTotalAmount());
-            paymentRequest.put("method", request.getPaymentMethod().toUpperCase());
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(paymentRequest, headers);
-            
-            // Call payment service (assuming it runs on port 8085)
-            restTemplate.postForObject("http://localhost:8085/api/payments", entity, Object.class);
-            
-        } catch (Exception e) {
-            // Log error but don't fail the order
-            System.err.println("Failed to create payment: " + e.getMessage());
-        }
-        
-        return savedOrder;
+        // Save order, holding stock for the whole cart first; the payment is created by the outbox relay
+        return createOrderWithStock(order, request.getPaymentMethod(), orderId -> {});
     }
     
-    public OrderResponse placeOrderWithAuth(PlaceOrderRequest request, String token) {
+    /**
+     * With an idempotency key, repeating the same request returns the first response instead of placing
+     * (and paying for) another order.
+     */
+    public OrderResponse placeOrderWithAuth(PlaceOrderRequest request, String token, String idempotencyKey) {
         // Extract user info from JWT token
-        String username = jwtUtil.getUsernameFromToken(token);
-        Long userId = getUserIdByUsername(username); // You need to implement this
+        Long userId = resolveUserId(token);
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return placeOrder(userId, request, orderId -> {});
+        }
+        return orderIdempotencyStore.execute(userId, idempotencyKey.trim(), request,
+                orderSaved -> placeOrder(userId, request, orderSaved), this::placedOrderResponse);
+    }
+    
+    private OrderResponse placeOrder(Long userId, PlaceOrderRequest request, LongConsumer orderSaved) {
+        long deadline = System.nanoTime() + remoteCallTimeout.toNanos();
+        
+        // The customer name only depends on userId, so look it up while the order is saved
+        CompletableFuture<String> customerNameLookup = supplyRemote(() -> getCustomerNameByUserId(userId));
         
         // Create order
         Order order = new Order();
@@ -168,15 +283,10 @@ public class OrderService {
         BigDecimal totalAmount = BigDecimal.ZERO;
         List<OrderItem> orderItems = new ArrayList<>();
         
+        Map<Long, ProductPrice> prices = resolvePrices(request.getItems() == null ? List.of()
+                : request.getItems().stream().map(PlaceOrderRequest.OrderItemRequest::getProductId).toList());
         for (PlaceOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
-            OrderItem item = new OrderItem();
-            item.setOrder(order);
-            item.setProductId(itemRequest.getProductId());
-            item.setProductName(itemRequest.getProductName());
-            item.setQuantity(itemRequest.getQuantity());
-            item.setUnitPrice(itemRequest.getUnitPrice());
-            item.setTotalPrice(itemRequest.getUnitPrice().multiply(BigDecimal.valueOf(itemRequest.getQuantity())));
-            
+            OrderItem item = pricedItem(order, itemRequest.getProductId(), itemRequest.getQuantity(), prices);
             orderItems.add(item);
             totalAmount = totalAmount.add(item.getTotalPrice());
         }
@@ -184,65 +294,191 @@ public class OrderService {
         order.setTotalAmount(totalAmount);
         order.setOrderItems(orderItems);
         
-        // Save order
-        Order savedOrder = createOrder(order);
+        // Save order, holding stock for the whole cart first; the payment is created by the outbox relay
+        Order savedOrder = createOrderWithStock(order, request.getPaymentMethod(), orderSaved);
         
-        // Create payment via REST call to payment service
+        // Get customer info and return response
+        String customerName;
         try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
-            
-            Map<String, Object> paymentRequest = new HashMap<>();
-            paymentRequest.put("orderId", savedOrder.getId());
-            paymentRequest.put("userId", savedOrder.getUserId());
-            paymentRequest.put("amount", savedOrder.getTotalAmount());
-            paymentRequest.put("method", request.getPaymentMethod().toUpperCase());
-            
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(paymentRequest, headers);
-            
-            // Call payment service
-            restTemplate.postForObject(PAYMENT_SERVICE_URL + "/api/payments/create-for-order", entity, Object.class);
-            logger.info("Payment creation initiated for order: {}", savedOrder.getId());
-            
+            customerName = awaitRemote(customerNameLookup, deadline);
         } catch (Exception e) {
-            logger.error("Failed to create payment for order: {}", savedOrder.getId(), e);
-            // Cancel the order since payment creation failed
-            savedOrder.setStatus(Order.OrderStatus.CANCELLED);
-            savedOrder.setUpdatedAt(LocalDateTime.now());
-            orderRepository.save(savedOrder);
-            logger.info("Order {} cancelled due to payment creation failure", savedOrder.getId());
+            customerNameLookup.cancel(true);
+            logger.warn("Customer name lookup for user {} failed: {}", userId, e.toString());
+            customerName = UNKNOWN_CUSTOMER;
         }
-        
-        // Get customer info and return response
-        String customerName = getCustomerNameByUserId(userId);
         String customerEmail = getCustomerEmailByUserId(userId);
         
         return new OrderResponse(savedOrder, customerName, customerEmail);
     }
     
-    private Long getUserIdByUsername(String username) {
+    // Response of an order placed by an idempotent request that did not get to record it
+    private OrderResponse placedOrderResponse(Long orderId) {
+        // Items are lazy, so the response is built in a transaction
+        return transactionTemplate.execute(status -> {
+            Order order = getOrderById(orderId);
+            return new OrderResponse(order, getCustomerNameByUserId(order.getUserId()),
+                    getCustomerEmailByUserId(order.getUserId()));
+        });
+    }
+    
+    // Lines are priced from the product price snapshot; prices and names sent by the client are not trusted
+    private Map<Long, ProductPrice> resolvePrices(List<Long> productIds) {
+        if (productIds.isEmpty()) {
+            throw new BusinessException("Order must contain at least one item");
+        }
+        if (productIds.contains(null)) {
+            throw new BusinessException("Product id is required for every item");
+        }
+        return productPriceSnapshot.getPrices(new HashSet<>(productIds));
+    }
+    
+    private OrderItem pricedItem(Order order, Long productId, Integer quantity, Map<Long, ProductPrice> prices) {
+        if (quantity == null || quantity <= 0) {
+            throw new BusinessException("Quantity must be positive for product: " + productId);
+        }
+        ProductPrice price = prices.get(productId);
+        if (price == null || price.getPrice() == null) {
+            throw new BusinessException("Product not found: " + productId);
+        }
+        if ("INACTIVE".equals(price.getStatus())) {
+            throw new BusinessException("Product is not available: " + productId);
+        }
+        OrderItem item = new OrderItem();
+        item.setOrder(order);
+        item.setProductId(productId);
+        item.setProductName(price.getName());
+        item.setQuantity(quantity);
+        item.setUnitPrice(price.getPrice());
+        item.setTotalPrice(price.getPrice().multiply(BigDecimal.valueOf(quantity)));
+        return item;
+    }
+    
+    private Order createOrderWithStock(Order order, String paymentMethod, LongConsumer orderSaved) {
+        if (paymentMethod == null || paymentMethod.isBlank()) {
+            throw new BusinessException("Payment method is required");
+        }
+        if (!reserveStock) {
+            return createOrderRequestingPayment(order, paymentMethod, orderSaved);
+        }
+        order.setStockReservationId(productStockClient.reserve(order.getOrderItems()));
+        try {
+            return createOrderRequestingPayment(order, paymentMethod, orderSaved);
+        } catch (RuntimeException e) {
+            releaseStock(order);
+            throw e;
+        }
+    }
+    
+    // The order and its payment request commit together, so every order gets exactly one payment request
+    private Order createOrderRequestingPayment(Order order, String paymentMethod, LongConsumer orderSaved) {
+        prepareNewOrder(order);
+        Order saved = transactionTemplate.execute(status -> {
+            Order persisted = orderRepository.save(order);
+            orderOutboxRepository.save(new OrderOutboxEvent(persisted.getId(),
+                    OrderOutboxEvent.Type.PAYMENT_REQUESTED, paymentPayload(persisted, paymentMethod)));
+            orderSaved.accept(persisted.getId());
+            return persisted;
+        });
+        orderStatisticsService.recordCreated(saved);
+        return saved;
+    }
+    
+    private void prepareNewOrder(Order order) {
+        // Generate unique order number
+        order.setOrderNumber("ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase());
+        order.setStatus(Order.OrderStatus.PENDING);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(LocalDateTime.now());
+        // Set expiration time to 10 minutes from now
+        order.setExpiresAt(LocalDateTime.now().plusMinutes(10));
+    }
+    
+    private String paymentPayload(Order order, String paymentMethod) {
+        Map<String, Object> paymentRequest = new LinkedHashMap<>();
+        paymentRequest.put("orderId", order.getId());
+        paymentRequest.put("userId", order.getUserId());
+        paymentRequest.put("amount", order.getTotalAmount());
+        paymentRequest.put("method", paymentMethod.toUpperCase());
+        try {
+            return objectMapper.writeValueAsString(paymentRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize payment request", e);
+        }
+    }
+    
+    /**
+     * Paid orders keep their stock. The commit is queued in the outbox within the transaction that confirms
+     * the order and retried until product-service acknowledges it: a lost commit would let the reservation
+     * expire and its stock be sold again.
+     */
+    void queueStockCommit(Long orderId, Long stockReservationId, Order.OrderStatus status) {
+        if (stockReservationId == null || status != Order.OrderStatus.CONFIRMED) {
+            return;
+        }
         try {
-            Map<String, Object> userInfo = restTemplate.getForObject(
-                AUTH_SERVICE_URL + "/api/auth/user/" + username, Map.class);
-            
-            if (userInfo != null && userInfo.get("data") != null) {
-                Map<String, Object> userData = (Map<String, Object>) userInfo.get("data");
-                return userData != null ? ((Number) userData.get("id")).longValue() : null;
+            orderOutboxRepository.save(new OrderOutboxEvent(orderId, OrderOutboxEvent.Type.STOCK_COMMIT_REQUESTED,
+                    objectMapper.writeValueAsString(Map.of("reservationId", stockReservationId))));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize stock commit request", e);
+        }
+    }
+    
+    // Cancelled orders give their stock back; a lost release is caught by product-service's expiry sweep
+    void settleStock(Long stockReservationId, Order.OrderStatus status) {
+        if (stockReservationId != null && status == Order.OrderStatus.CANCELLED) {
+            productStockClient.release(stockReservationId);
+        }
+    }
+    
+    private void releaseStock(Order order) {
+        if (order.getStockReservationId() != null) {
+            productStockClient.release(order.getStockReservationId());
+        }
+    }
+    
+    private <T> CompletableFuture<T> supplyRemote(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, remoteCallExecutor);
+        } catch (RejectedExecutionException e) {
+            // Executor saturated: fall back to running the call on the request thread
+            try {
+                return CompletableFuture.completedFuture(call.get());
+            } catch (RuntimeException callFailure) {
+                return CompletableFuture.failedFuture(callFailure);
             }
-            return null;
-        } catch (Exception e) {
-            logger.error("Failed to get user ID for username: {}", username, e);
-            throw new BusinessException("Unable to retrieve user information");
         }
     }
     
+    private <T> T awaitRemote(CompletableFuture<T> future, long deadlineNanos) throws TimeoutException {
+        long remaining = deadlineNanos - System.nanoTime();
+        try {
+            return future.get(Math.max(0, remaining), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Order placement interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+    }
+    
+    private Long resolveUserId(String token) {
+        JwtClaims claims;
+        try {
+            claims = jwtUtil.parseAndVerify(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new BusinessException("Invalid token");
+        }
+        // Tokens issued by auth-service carry the userId; older tokens fall back to the cached lookup
+        return claims.getUserId() != null ? claims.getUserId() : userIdentityCache.getUserId(claims.getSubject());
+    }
+    
     private String getCustomerNameByUserId(Long userId) {
         try {
-            Map<String, Object> userInfo = restTemplate.getForObject(
-                USER_SERVICE_URL + "/api/users/user/" + userId, Map.class);
-            return userInfo != null ? (String) userInfo.get("fullName") : "Unknown Customer";
+            String fullName = userIdentityCache.getCustomerName(userId);
+            return fullName != null ? fullName : UNKNOWN_CUSTOMER;
         } catch (Exception e) {
-            return "Unknown Customer";
+            return UNKNOWN_CUSTOMER;
         }
     }
     
@@ -0,0 +1,254 @@
+package com.example.service;
+
+import com.example.entity.Order;
+import com.example.repository.OrderRepository;
+import com.example.dto.DailyAmount;
+import com.example.dto.OrderStatisticsRow;
+import com.example.dto.OrderStatusTotal;
+import com.example.dto.OrderTransitionView;
+import com.example.dto.PaymentMethodAmount;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Order aggregates for the management and financial reports.
+ * <p>
+ * By default every read is answered by a GROUP BY query. With {@code orders.statistics.in-memory=true}
+ * the counters live in memory instead, are maintained incrementally on every order write and rebuilt
+ * from the database at startup. Only enable that on a single instance: an instance never sees the
+ * writes of the others, so its counters would drift from the database.
+ */
+@Service
+public class OrderStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatisticsService.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${orders.statistics.in-memory:false}")
+    private boolean inMemory;
+
+    private final Map<Order.OrderStatus, Totals> byStatus = new ConcurrentHashMap<>();
+    private final Map<DayKey, Totals> byStatusAndDay = new ConcurrentHashMap<>();
+    private final Map<MethodKey, Totals> byStatusAndPaymentMethod = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        if (!inMemory) {
+            return;
+        }
+        byStatus.clear();
+        byStatusAndDay.clear();
+        byStatusAndPaymentMethod.clear();
+
+        long orders = 0;
+        for (OrderStatisticsRow row : orderRepository.aggregateForStatistics()) {
+            Totals totals = new Totals(row.getOrderCount(), nullToZero(row.getTotalAmount()));
+            add(row.getStatus(), row.getDay(), row.getPaymentMethod(), totals);
+            orders += row.getOrderCount();
+        }
+        logger.info("Order statistics rebuilt from {} orders", orders);
+    }
+
+    public static Contribution contributionOf(Order order) {
+        return new Contribution(
+                order.getStatus(),
+                order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : null,
+                order.getPaymentMethod(),
+                nullToZero(order.getTotalAmount()));
+    }
+
+    public static Contribution contributionOf(OrderTransitionView order) {
+        return new Contribution(
+                order.getStatus(),
+                order.getCreatedAt() != null ? order.getCreatedAt().toLocalDate() : null,
+                order.getPaymentMethod(),
+                nullToZero(order.getTotalAmount()));
+    }
+
+    public void recordCreated(Order order) {
+        if (!inMemory) {
+            return;
+        }
+        apply(contributionOf(order), true);
+    }
+
+    /**
+     * Moves an order's contribution from what it was before a write to what it is now.
+     */
+    public void recordUpdated(Contribution before, Order after) {
+        recordUpdated(before, contributionOf(after));
+    }
+
+    public void recordUpdated(Contribution before, Contribution after) {
+        if (!inMemory) {
+            return;
+        }
+        if (!after.equals(before)) {
+            apply(before, false);
+            apply(after, true);
+        }
+    }
+
+    public void recordDeleted(Contribution before) {
+        if (!inMemory) {
+            return;
+        }
+        apply(before, false);
+    }
+
+    public Totals getTotals() {
+        Totals result = Totals.EMPTY;
+        for (Totals totals : getTotalsByStatus().values()) {
+            result = result.plus(totals);
+        }
+        return result;
+    }
+
+    public Totals getTotals(Order.OrderStatus status) {
+        return getTotals(List.of(status));
+    }
+
+    public Totals getTotals(Collection<Order.OrderStatus> statuses) {
+        Map<Order.OrderStatus, Totals> totalsByStatus = getTotalsByStatus();
+        Totals result = Totals.EMPTY;
+        for (Order.OrderStatus status : statuses) {
+            result = result.plus(totalsByStatus.getOrDefault(status, Totals.EMPTY));
+        }
+        return result;
+    }
+
+    public Map<Order.OrderStatus, Totals> getTotalsByStatus() {
+        Map<Order.OrderStatus, Totals> result = new EnumMap<>(Order.OrderStatus.class);
+        if (!inMemory) {
+            for (OrderStatusTotal row : orderRepository.sumByStatus()) {
+                result.put(row.getStatus(), new Totals(row.getOrderCount(), nullToZero(row.getTotalAmount())));
+            }
+            return result;
+        }
+        byStatus.forEach((status, totals) -> {
+            if (totals.getCount() > 0) {
+                result.put(status, totals);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Amount per day (ISO date string) for the given statuses, from {@code fromDate} through today.
+     * In memory the cost is proportional to the number of days in the window, not the number of orders.
+     */
+    public Map<String, BigDecimal> getDailyAmounts(Collection<Order.OrderStatus> statuses, LocalDate fromDate) {
+        Map<String, BigDecimal> result = new TreeMap<>();
+        if (!inMemory) {
+            for (DailyAmount row : orderRepository.sumByDay(statuses, fromDate.atStartOfDay())) {
+                result.put(row.getDay().toString(), nullToZero(row.getTotalAmount()));
+            }
+            return result;
+        }
+        LocalDate today = LocalDate.now();
+        for (LocalDate day = fromDate; !day.isAfter(today); day = day.plusDays(1)) {
+            BigDecimal amount = BigDecimal.ZERO;
+            boolean seen = false;
+            for (Order.OrderStatus status : statuses) {
+                Totals totals = byStatusAndDay.get(new DayKey(status, day));
+                if (totals != null && totals.getCount() > 0) {
+                    amount = amount.add(totals.getAmount());
+                    seen = true;
+                }
+            }
+            if (seen) {
+                result.put(day.toString(), amount);
+            }
+        }
+        return result;
+    }
+
+    public Map<String, BigDecimal> getAmountsByPaymentMethod(Collection<Order.OrderStatus> statuses) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        if (!inMemory) {
+            for (PaymentMethodAmount row : orderRepository.sumByPaymentMethod(statuses)) {
+                result.put(row.getPaymentMethod(), nullToZero(row.getTotalAmount()));
+            }
+            return result;
+        }
+        byStatusAndPaymentMethod.forEach((key, totals) -> {
+            if (statuses.contains(key.status()) && totals.getCount() > 0) {
+                result.merge(key.paymentMethod(), totals.getAmount(), BigDecimal::add);
+            }
+        });
+        return result;
+    }
+
+    private void apply(Contribution contribution, boolean added) {
+        Totals delta = new Totals(1, contribution.amount());
+        add(contribution.status(), contribution.day(), contribution.paymentMethod(), added ? delta : delta.negate());
+    }
+
+    private void add(Order.OrderStatus status, LocalDate day, String paymentMethod, Totals delta) {
+        if (status == null) {
+            return;
+        }
+        byStatus.merge(status, delta, Totals::plus);
+        if (day != null) {
+            byStatusAndDay.merge(new DayKey(status, day), delta, Totals::plus);
+        }
+        if (paymentMethod != null) {
+            byStatusAndPaymentMethod.merge(new MethodKey(status, paymentMethod), delta, Totals::plus);
+        }
+    }
+
+    private static BigDecimal nullToZero(BigDecimal amount) {
+        return amount != null ? amount : BigDecimal.ZERO;
+    }
+
+    /** What a single order adds to the counters. */
+    public record Contribution(Order.OrderStatus status, LocalDate day, String paymentMethod, BigDecimal amount) {
+        public Contribution withStatus(Order.OrderStatus newStatus) {
+            return new Contribution(newStatus, day, paymentMethod, amount);
+        }
+    }
+
+    private record DayKey(Order.OrderStatus status, LocalDate day) {}
+
+    private record MethodKey(Order.OrderStatus status, String paymentMethod) {}
+
+    public static final class Totals {
+        static final Totals EMPTY = new Totals(0, BigDecimal.ZERO);
+
+        private final long count;
+        private final BigDecimal amount;
+
+        public Totals(long count, BigDecimal amount) {
+            this.count = count;
+            this.amount = amount;
+        }
+
+        public long getCount() { return count; }
+
+        public BigDecimal getAmount() { return amount; }
+
+        Totals plus(Totals other) {
+            return new Totals(count + other.count, amount.add(other.amount));
+        }
+
+        Totals negate() {
+            return new Totals(-count, amount.negate());
+        }
+    }
+}
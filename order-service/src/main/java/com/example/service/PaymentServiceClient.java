@@ -0,0 +1,53 @@
+package com.example.service;
+
+import com.example.common.config.ServiceConfig;
+import com.example.common.response.ApiResponse;
+import com.example.common.security.ServiceTokenProvider;
+import com.example.dto.CreatePaymentResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls payment-service's batch payment creation API. Background callers have no user token, so requests
+ * carry the service token.
+ */
+@Service
+public class PaymentServiceClient {
+
+    private static final String CREATE_FOR_ORDERS_PATH = "/api/payments/create-for-orders";
+    private static final ParameterizedTypeReference<ApiResponse<List<CreatePaymentResult>>> RESULTS =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceConfig serviceConfig;
+
+    @Autowired
+    private ServiceTokenProvider serviceTokenProvider;
+
+    /**
+     * Creates a payment per request; payment-service answers EXISTING for orders that already have one.
+     *
+     * @throws org.springframework.web.client.RestClientException if the batch could not be delivered
+     */
+    public List<CreatePaymentResult> createPayments(List<Map<String, Object>> payments) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+        ApiResponse<List<CreatePaymentResult>> response = restTemplate.exchange(
+                serviceConfig.getPaymentServiceUrl() + CREATE_FOR_ORDERS_PATH, HttpMethod.POST,
+                new HttpEntity<>(Map.of("payments", payments), headers), RESULTS).getBody();
+        return response != null && response.getData() != null ? response.getData() : List.of();
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.service;
+
+import com.example.dto.OrderTransitionView;
+import com.example.dto.PaymentStatusEvent;
+import com.example.dto.PaymentStatusEventResult;
+import com.example.entity.Order;
+import com.example.entity.ProcessedPaymentEvent;
+import com.example.repository.OrderRepository;
+import com.example.repository.ProcessedPaymentEventRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Applies payment status events from payment-service to their orders. Safe against redelivery and
+ * reordering:
+ * <ul>
+ *   <li>an event id that was already applied is ignored ({@code processed_payment_events});</li>
+ *   <li>an event whose sequence is not newer than the last one applied to the order is ignored as stale;</li>
+ *   <li>the resulting status change must be allowed by {@link Order.OrderStatus#canTransitionTo}.</li>
+ * </ul>
+ * A batch reads the columns it needs for all its orders in one query, then applies each change with a
+ * conditional UPDATE on the status it saw, together with the event id. If the order changed in between, it is
+ * re-read and the event decided again.
+ */
+@Service
+public class PaymentWebhookService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentWebhookService.class);
+    private static final int MAX_TRANSITION_ATTEMPTS = 5;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private ProcessedPaymentEventRepository processedPaymentEventRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderStatisticsService orderStatisticsService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Older redeliveries are still caught by the order's sequence
+    @Value("${orders.payment-webhooks.dedupe-retention:7d}")
+    private Duration dedupeRetention;
+
+    private record OrderState(Long id, Order.OrderStatus status, Long sequence,
+                              OrderStatisticsService.Contribution contribution, Long stockReservationId) {
+
+        static OrderState of(OrderTransitionView view) {
+            return new OrderState(view.getId(), view.getStatus(), view.getPaymentEventSequence(),
+                    OrderStatisticsService.contributionOf(view), view.getStockReservationId());
+        }
+
+        OrderState moveTo(Order.OrderStatus newStatus, Long eventSequence) {
+            return new OrderState(id, newStatus, eventSequence != null ? eventSequence : sequence,
+                    contribution.withStatus(newStatus), stockReservationId);
+        }
+    }
+
+    /**
+     * Applies the events in the order given and reports what happened to each.
+     */
+    public List<PaymentStatusEventResult> apply(List<PaymentStatusEvent> events) {
+        Set<String> eventIds = events.stream().map(PaymentStatusEvent::getEventId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<String> processed = eventIds.isEmpty() ? new HashSet<>()
+                : new HashSet<>(processedPaymentEventRepository.findProcessedEventIds(eventIds));
+        Set<Long> orderIds = events.stream().map(PaymentStatusEvent::getOrderId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Map<Long, OrderState> orders = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            for (OrderTransitionView view : orderRepository.findTransitionViews(orderIds)) {
+                orders.put(view.getId(), OrderState.of(view));
+            }
+        }
+
+        List<PaymentStatusEventResult> results = new ArrayList<>(events.size());
+        for (PaymentStatusEvent event : events) {
+            results.add(applyEvent(event, processed, orders));
+        }
+        return results;
+    }
+
+    @Scheduled(fixedDelayString = "${orders.payment-webhooks.sweep-interval-ms:3600000}")
+    public void purgeProcessedEvents() {
+        int deleted = processedPaymentEventRepository.deleteProcessedBefore(LocalDateTime.now().minus(dedupeRetention));
+        if (deleted > 0) {
+            logger.info("Purged {} processed payment event ids", deleted);
+        }
+    }
+
+    private PaymentStatusEventResult applyEvent(PaymentStatusEvent event, Set<String> processed,
+                                                Map<Long, OrderState> orders) {
+        Long orderId = event.getOrderId();
+        String eventId = event.getEventId();
+        if (orderId == null || event.getStatus() == null) {
+            return rejected(event, "orderId and status are required");
+        }
+        if (eventId != null && !processed.add(eventId)) {
+            return ignored(event, "duplicate");
+        }
+        Order.OrderStatus target = mapPaymentStatusToOrderStatus(event.getStatus());
+        if (target == null) {
+            return ignored(event, "no-status-change");
+        }
+
+        for (int attempt = 0; attempt < MAX_TRANSITION_ATTEMPTS; attempt++) {
+            OrderState order = orders.get(orderId);
+            if (order == null) {
+                return rejected(event, "Order not found with id: " + orderId);
+            }
+            if (event.getSequence() != null && order.sequence() != null && event.getSequence() <= order.sequence()) {
+                return ignored(event, "stale");
+            }
+            if (!order.status().canTransitionTo(target)) {
+                if (order.status() != target) {
+                    logger.warn("Ignoring payment status {} for order {}: {} -> {} is not allowed",
+                            event.getStatus(), orderId, order.status(), target);
+                }
+                return ignored(event, "invalid-transition");
+            }
+
+            boolean applied;
+            try {
+                applied = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    LocalDateTime now = LocalDateTime.now();
+                    int updated = event.getSequence() != null
+                            ? orderRepository.transitionStatus(orderId, order.status(), target, event.getSequence(), now)
+                            : orderRepository.transitionStatus(orderId, order.status(), target, now);
+                    if (updated == 0) {
+                        return false;
+                    }
+                    orderService.queueStockCommit(orderId, order.stockReservationId(), target);
+                    if (eventId != null) {
+                        processedPaymentEventRepository.save(new ProcessedPaymentEvent(eventId, orderId));
+                    }
+                    return true;
+                }));
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent delivery of the same event got there first; its change stands
+                return ignored(event, "duplicate");
+            }
+            if (applied) {
+                orderStatisticsService.recordUpdated(order.contribution(), order.contribution().withStatus(target));
+                orderService.settleStock(order.stockReservationId(), target);
+                orders.put(orderId, order.moveTo(target, event.getSequence()));
+                logger.info("Updated order {} status to {}", orderId, target);
+                count("applied");
+                return new PaymentStatusEventResult(eventId, PaymentStatusEventResult.Outcome.APPLIED, null);
+            }
+            // Changed since it was read (another event, the expiry job, an admin): read it again and re-decide
+            orders.remove(orderId);
+            for (OrderTransitionView view : orderRepository.findTransitionViews(List.of(orderId))) {
+                orders.put(orderId, OrderState.of(view));
+            }
+        }
+        throw new IllegalStateException("Order " + orderId + " kept changing while applying a payment event");
+    }
+
+    private Order.OrderStatus mapPaymentStatusToOrderStatus(String paymentStatus) {
+        switch (paymentStatus.toUpperCase()) {
+            case "COMPLETED":
+                return Order.OrderStatus.CONFIRMED;
+            case "FAILED":
+            case "CANCELLED":
+                return Order.OrderStatus.CANCELLED;
+            default:
+                return null; // No status change needed
+        }
+    }
+
+    private PaymentStatusEventResult ignored(PaymentStatusEvent event, String reason) {
+        logger.debug("Ignored payment event {} for order {} ({})", event.getEventId(), event.getOrderId(), reason);
+        count(reason);
+        return new PaymentStatusEventResult(event.getEventId(), PaymentStatusEventResult.Outcome.IGNORED, null);
+    }
+
+    private PaymentStatusEventResult rejected(PaymentStatusEvent event, String error) {
+        count("rejected");
+        return new PaymentStatusEventResult(event.getEventId(), PaymentStatusEventResult.Outcome.REJECTED, error);
+    }
+
+    private void count(String outcome) {
+        meterRegistry.counter("order.payment.webhook.events", "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.service;
+
+import com.example.common.config.ServiceConfig;
+import com.example.common.exception.BusinessException;
+import com.example.common.response.ApiResponse;
+import com.example.dto.ProductPrice;
+import com.example.dto.ProductPriceNotification;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Local copy of product prices and names, so order lines are priced server-side without a call to
+ * product-service per item. Entries are pushed by product-service's price webhook; products not seen yet
+ * are fetched in one bulk {@code GET /api/products/prices} per order. Every
+ * {@code orders.price-snapshot.refresh-interval-ms} all cached entries are re-read in bulk, which bounds
+ * how stale a price can get if a notification is lost.
+ * <p>
+ * Prices read from product-service ({@code GET /api/products/prices}) are the source of truth and always
+ * replace the cached copy. A pushed copy, which only a service caller can send, replaces the cached one only
+ * if its {@code updatedAt} is newer, so a late notification cannot undo a fresher read; whatever a push
+ * leaves behind is overwritten by the next refresh.
+ */
+@Service
+public class ProductPriceSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceSnapshot.class);
+    private static final String PRICES_PATH = "/api/products/prices";
+    private static final ParameterizedTypeReference<ApiResponse<List<ProductPrice>>> PRICES_RESPONSE =
+            new ParameterizedTypeReference<>() {};
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceConfig serviceConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.price-snapshot.max-size:100000}")
+    private long maxSize;
+
+    // product-service accepts at most 500 ids per lookup
+    @Value("${orders.price-snapshot.fetch-batch-size:200}")
+    private int fetchBatchSize;
+
+    private Cache<Long, ProductPrice> prices;
+    private Timer refreshLag;
+
+    // When the last full refresh started: every entry has been confirmed against product-service since then
+    private volatile long lastRefreshMillis = System.currentTimeMillis();
+
+    @PostConstruct
+    void init() {
+        prices = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, prices, "order.price.snapshot");
+
+        Gauge.builder("order.price.snapshot.staleness", this,
+                        snapshot -> (System.currentTimeMillis() - snapshot.lastRefreshMillis) / 1000.0)
+                .description("Seconds since every cached price was last confirmed by a full refresh")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        // Measured against product-service's updatedAt, so it assumes both services run on the same clock and zone
+        refreshLag = Timer.builder("order.price.snapshot.refresh.lag")
+                .description("Time from a product change in product-service until its notification is applied here")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Prices of the given products, fetching the ones not cached yet in bulk.
+     *
+     * @return an entry per known product; products that do not exist are left out
+     * @throws BusinessException if product-service cannot be reached for the missing ones
+     */
+    public Map<Long, ProductPrice> getPrices(Collection<Long> productIds) {
+        Map<Long, ProductPrice> result = new HashMap<>(prices.getAllPresent(productIds));
+        if (result.size() < productIds.size()) {
+            Set<Long> missing = new HashSet<>(productIds);
+            missing.removeAll(result.keySet());
+            for (ProductPrice price : fetch(missing)) {
+                prices.put(price.getId(), price);
+                result.put(price.getId(), price);
+            }
+        }
+        return result;
+    }
+
+    public void apply(ProductPriceNotification notification) {
+        LocalDateTime now = LocalDateTime.now();
+        if (notification.getProducts() != null) {
+            for (ProductPrice price : notification.getProducts()) {
+                boolean applied = merge(price) == price;
+                if (applied && price.getUpdatedAt() != null && price.getUpdatedAt().isBefore(now)) {
+                    refreshLag.record(Duration.between(price.getUpdatedAt(), now));
+                }
+            }
+        }
+        if (notification.getRemovedIds() != null) {
+            prices.invalidateAll(notification.getRemovedIds());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${orders.price-snapshot.refresh-interval-ms:300000}",
+               initialDelayString = "${orders.price-snapshot.refresh-interval-ms:300000}")
+    public void refresh() {
+        long startedAt = System.currentTimeMillis();
+        List<Long> productIds = new ArrayList<>(prices.asMap().keySet());
+        try {
+            for (int from = 0; from < productIds.size(); from += fetchBatchSize) {
+                List<Long> batch = productIds.subList(from, Math.min(from + fetchBatchSize, productIds.size()));
+                Map<Long, ProductPrice> fetched = fetch(batch).stream()
+                        .collect(Collectors.toMap(ProductPrice::getId, price -> price));
+                for (Long productId : batch) {
+                    ProductPrice price = fetched.get(productId);
+                    if (price != null) {
+                        prices.put(productId, price);
+                    } else {
+                        prices.invalidate(productId);
+                    }
+                }
+            }
+            lastRefreshMillis = startedAt;
+        } catch (BusinessException e) {
+            logger.warn("Price snapshot refresh failed, keeping current entries: {}", e.getMessage());
+        }
+    }
+
+    private ProductPrice merge(ProductPrice price) {
+        return prices.asMap().merge(price.getId(), price,
+                (current, incoming) -> isOlder(incoming, current) ? current : incoming);
+    }
+
+    private static boolean isOlder(ProductPrice incoming, ProductPrice current) {
+        if (incoming.getUpdatedAt() == null || current.getUpdatedAt() == null) {
+            return incoming.getUpdatedAt() == null && current.getUpdatedAt() != null;
+        }
+        return incoming.getUpdatedAt().isBefore(current.getUpdatedAt());
+    }
+
+    private List<ProductPrice> fetch(Collection<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        List<ProductPrice> fetched = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += fetchBatchSize) {
+            String idList = ids.subList(from, Math.min(from + fetchBatchSize, ids.size())).stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+            try {
+                ApiResponse<List<ProductPrice>> response = restTemplate.exchange(
+                        serviceConfig.getProductServiceUrl() + PRICES_PATH + "?ids=" + idList,
+                        HttpMethod.GET, null, PRICES_RESPONSE).getBody();
+                if (response != null && response.getData() != null) {
+                    fetched.addAll(response.getData());
+                }
+            } catch (Exception e) {
+                logger.error("Failed to fetch prices for {} products", ids.size(), e);
+                throw new BusinessException("Unable to retrieve product prices");
+            }
+        }
+        return fetched;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.service;
+
+import com.example.common.config.ServiceConfig;
+import com.example.common.exception.BusinessException;
+import com.example.common.security.ServiceTokenProvider;
+import com.example.entity.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calls product-service's batch stock reservation API: the whole cart is held in one round trip and
+ * one transaction there, and released the same way. Requests carry the service token; product-service
+ * refuses stock calls from anyone else.
+ */
+@Service
+public class ProductStockClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductStockClient.class);
+    private static final String RESERVATIONS_PATH = "/api/products/stock/reservations";
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceConfig serviceConfig;
+
+    @Autowired
+    private ServiceTokenProvider serviceTokenProvider;
+
+    /**
+     * @return the reservation id to confirm or release later
+     * @throws BusinessException if any line cannot be reserved; nothing is held in that case
+     */
+    public Long reserve(List<OrderItem> items) {
+        List<Map<String, Object>> lines = new ArrayList<>(items.size());
+        for (OrderItem item : items) {
+            Map<String, Object> line = new HashMap<>();
+            line.put("productId", item.getProductId());
+            line.put("quantity", item.getQuantity());
+            lines.add(line);
+        }
+        Map<String, Object> request = new HashMap<>();
+        request.put("items", lines);
+
+        try {
+            Map<String, Object> response = restTemplate.postForObject(
+                serviceConfig.getProductServiceUrl() + RESERVATIONS_PATH, withServiceToken(request), Map.class);
+            Map<String, Object> reservation = response != null ? (Map<String, Object>) response.get("data") : null;
+            if (reservation == null || reservation.get("id") == null) {
+                throw new BusinessException("Unable to reserve stock");
+            }
+            return ((Number) reservation.get("id")).longValue();
+        } catch (HttpClientErrorException e) {
+            Map<String, Object> body = e.getResponseBodyAs(Map.class);
+            Object reason = body != null ? body.get("error") : null;
+            throw new BusinessException(reason != null ? reason.toString() : "Unable to reserve stock");
+        } catch (BusinessException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("Stock reservation request failed", e);
+            throw new BusinessException("Unable to reserve stock");
+        }
+    }
+
+    /**
+     * Gives the held stock back. Safe to repeat: product-service ignores a release of an already released
+     * reservation. Failures are logged, not thrown.
+     */
+    public boolean release(Long reservationId) {
+        try {
+            restTemplate.postForObject(
+                serviceConfig.getProductServiceUrl() + RESERVATIONS_PATH + "/" + reservationId + "/release", withServiceToken(null), Map.class);
+            return true;
+        } catch (Exception e) {
+            logger.error("Failed to release stock reservation: {}", reservationId, e);
+            return false;
+        }
+    }
+
+    /**
+     * Releases a batch of reservations in one call, e.g. for every order the expiry job just cancelled.
+     * Safe to repeat; failures are logged and left to product-service's own expiry sweep.
+     */
+    public void releaseAll(Collection<Long> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return;
+        }
+        try {
+            restTemplate.postForObject(serviceConfig.getProductServiceUrl() + RESERVATIONS_PATH + "/release",
+                withServiceToken(Map.of("reservationIds", reservationIds)), Map.class);
+        } catch (Exception e) {
+            logger.error("Failed to release {} stock reservations", reservationIds.size(), e);
+        }
+    }
+
+    /**
+     * Makes the hold permanent once the order is paid. Safe to repeat: committing a committed reservation
+     * succeeds.
+     *
+     * @throws BusinessException if product-service refuses, e.g. the reservation was already released
+     * @throws org.springframework.web.client.RestClientException if the call failed and may be retried
+     */
+    public void commit(Long reservationId) {
+        try {
+            restTemplate.postForObject(serviceConfig.getProductServiceUrl() + RESERVATIONS_PATH + "/" + reservationId
+                + "/commit", withServiceToken(null), Map.class);
+        } catch (HttpClientErrorException e) {
+            Map<String, Object> body = e.getResponseBodyAs(Map.class);
+            Object reason = body != null ? body.get("error") : null;
+            throw new BusinessException(reason != null ? reason.toString() : "Unable to commit stock reservation " + reservationId);
+        }
+    }
+
+    private HttpEntity<Object> withServiceToken(Object body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+        return new HttpEntity<>(body, headers);
+    }
+}
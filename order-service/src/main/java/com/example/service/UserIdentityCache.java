@@ -0,0 +1,101 @@
+package com.example.service;
+
+import com.example.common.config.ServiceConfig;
+import com.example.common.exception.BusinessException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Local cache for the username -> userId (auth-service) and userId -> full name (user-service) lookups
+ * made on every order placement. Concurrent misses for the same key share a single remote call.
+ */
+@Service
+public class UserIdentityCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityCache.class);
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceConfig serviceConfig;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${orders.identity-cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${orders.identity-cache.ttl:10m}")
+    private Duration ttl;
+
+    private Cache<String, Long> userIdsByUsername;
+    private Cache<Long, String> customerNamesByUserId;
+
+    @PostConstruct
+    void init() {
+        userIdsByUsername = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        customerNamesByUserId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userIdsByUsername, "user.identity.userId");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerNamesByUserId, "user.identity.customerName");
+    }
+
+    /**
+     * @throws BusinessException if auth-service cannot be reached or has no such user; never returns null
+     */
+    public Long getUserId(String username) {
+        return userIdsByUsername.get(username, this::fetchUserId);
+    }
+
+    /**
+     * @return the customer's full name, or null if user-service has no profile for the user
+     */
+    public String getCustomerName(Long userId) {
+        return customerNamesByUserId.get(userId, this::fetchCustomerName);
+    }
+
+    private Long fetchUserId(String username) {
+        Map<String, Object> userInfo;
+        try {
+            userInfo = restTemplate.getForObject(
+                serviceConfig.getAuthServiceUrl() + "/api/auth/user/" + username, Map.class);
+        } catch (Exception e) {
+            logger.error("Failed to get user ID for username: {}", username, e);
+            throw new BusinessException("Unable to retrieve user information");
+        }
+        // An order must never be stored without its user
+        Map<String, Object> userData = userInfo != null ? (Map<String, Object>) userInfo.get("data") : null;
+        if (userData == null || !(userData.get("id") instanceof Number id)) {
+            logger.warn("Auth-service returned no user ID for username: {}", username);
+            throw new BusinessException("Unable to retrieve user information");
+        }
+        return id.longValue();
+    }
+
+    private String fetchCustomerName(Long userId) {
+        Map<String, Object> userInfo = restTemplate.getForObject(
+            serviceConfig.getUserServiceUrl() + "/api/users/user/" + userId, Map.class);
+        return userInfo != null ? (String) userInfo.get("fullName") : null;
+    }
+}
@@ -1,5 +1,7 @@
 package com.example.config;
 
+import com.example.common.security.JwtAuthenticationFilter;
+import com.example.common.security.ServiceTokenProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -36,6 +38,7 @@ public class SecurityConfig {
                 .requestMatchers("/actuator/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/swagger-ui.html", "/api-docs/**", "/v3/api-docs/**").permitAll()
                 .requestMatchers("/api/management/**").authenticated()
+                .requestMatchers("/api/payments/create-for-orders").hasRole(ServiceTokenProvider.SERVICE_ROLE)
                 .anyRequest().authenticated()
             )
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
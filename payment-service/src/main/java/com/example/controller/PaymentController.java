@@ -1,6 +1,9 @@
 package com.example.controller;
 
 import com.example.common.response.ApiResponse;
+import com.example.dto.CreatePaymentRequest;
+import com.example.dto.CreatePaymentResult;
+import com.example.dto.CreatePaymentsRequest;
 import com.example.entity.Payment;
 import com.example.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -66,6 +69,12 @@ public class PaymentController {
         return ResponseEntity.ok(ApiResponse.success("Payment created successfully", createdPayment));
     }
 
+    @PostMapping("/create-for-orders")
+    public ResponseEntity<ApiResponse<List<CreatePaymentResult>>> createPaymentsForOrders(@RequestBody CreatePaymentsRequest request) {
+        List<CreatePaymentRequest> payments = request.getPayments() != null ? request.getPayments() : List.of();
+        return ResponseEntity.ok(ApiResponse.success(paymentService.createPaymentsForOrders(payments)));
+    }
+
     @PostMapping("/{id}/process")
     public ResponseEntity<Payment> processPayment(@PathVariable Long id) {
         Payment processedPayment = paymentService.processPayment(id);
@@ -1,70 +1,59 @@
 package com.example.controller;
 
+import com.example.common.exception.BusinessException;
+import com.example.common.response.KeysetCursor;
+import com.example.dto.DailyAmount;
+import com.example.dto.PaymentMethodAmount;
+import com.example.dto.PaymentStatusTotal;
 import com.example.entity.Payment;
 import com.example.service.PaymentService;
-import com.example.common.security.JwtUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.TreeMap;
 
 @RestController
 @RequestMapping("/api/management/payments")
+@PreAuthorize("hasRole('ADMIN')")
 public class PaymentManagementController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private PaymentService paymentService;
     
-    @Autowired
-    private JwtUtil jwtUtil;
-
     @GetMapping("/money-flow")
-    public ResponseEntity<Map<String, Object>> getMoneyFlow(
-            @RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> getMoneyFlow() {
         
-        validateToken(token);
-        
-        List<Payment> allPayments = paymentService.getAllPayments();
+        Map<Payment.PaymentStatus, PaymentStatusTotal> totalsByStatus = totalsByStatus();
         
         // Tổng dòng tiền
-        BigDecimal totalIncome = allPayments.stream()
-            .filter(p -> p.getStatus() == Payment.PaymentStatus.COMPLETED)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-        BigDecimal pendingAmount = allPayments.stream()
-            .filter(p -> p.getStatus() == Payment.PaymentStatus.PENDING)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-            
-        BigDecimal failedAmount = allPayments.stream()
-            .filter(p -> p.getStatus() == Payment.PaymentStatus.FAILED)
-            .map(Payment::getAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal totalIncome = amountOf(totalsByStatus.get(Payment.PaymentStatus.COMPLETED));
+        BigDecimal pendingAmount = amountOf(totalsByStatus.get(Payment.PaymentStatus.PENDING));
+        BigDecimal failedAmount = amountOf(totalsByStatus.get(Payment.PaymentStatus.FAILED));
         
         // Dòng tiền theo phương thức thanh toán
-        Map<String, BigDecimal> incomeByMethod = allPayments.stream()
-            .filter(p -> p.getStatus() == Payment.PaymentStatus.COMPLETED)
-            .collect(Collectors.groupingBy(
-                p -> p.getMethod().toString(),
-                Collectors.reducing(BigDecimal.ZERO, Payment::getAmount, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> incomeByMethod = new HashMap<>();
+        for (PaymentMethodAmount row : paymentService.getAmountsByMethod(Payment.PaymentStatus.COMPLETED)) {
+            incomeByMethod.put(row.getMethod().toString(), row.getTotalAmount());
+        }
         
         // Dòng tiền theo ngày (7 ngày gần nhất)
         LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        Map<String, BigDecimal> dailyIncome = allPayments.stream()
-            .filter(p -> p.getStatus() == Payment.PaymentStatus.COMPLETED)
-            .filter(p -> p.getProcessedAt() != null && p.getProcessedAt().isAfter(sevenDaysAgo))
-            .collect(Collectors.groupingBy(
-                p -> p.getProcessedAt().toLocalDate().toString(),
-                Collectors.reducing(BigDecimal.ZERO, Payment::getAmount, BigDecimal::add)
-            ));
+        Map<String, BigDecimal> dailyIncome = new TreeMap<>();
+        for (DailyAmount row : paymentService.getDailyProcessedAmounts(Payment.PaymentStatus.COMPLETED, sevenDaysAgo)) {
+            dailyIncome.put(row.getDay().toString(), row.getTotalAmount());
+        }
         
         Map<String, Object> moneyFlow = new HashMap<>();
         moneyFlow.put("totalIncome", totalIncome);
@@ -72,78 +61,61 @@ public class PaymentManagementController {
         moneyFlow.put("failedAmount", failedAmount);
         moneyFlow.put("incomeByPaymentMethod", incomeByMethod);
         moneyFlow.put("dailyIncome", dailyIncome);
-        moneyFlow.put("totalTransactions", allPayments.size());
+        moneyFlow.put("totalTransactions", countOf(totalsByStatus.values()));
         
         return ResponseEntity.ok(moneyFlow);
     }
     
     @GetMapping("/transactions")
     public ResponseEntity<Map<String, Object>> getAllTransactions(
-            @RequestHeader("Authorization") String token,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            @RequestParam(required = false) String status) {
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime afterCreatedAt,
+            @RequestParam(required = false) Long afterId) {
         
-        validateToken(token);
-        
-        List<Payment> payments = paymentService.getAllPayments();
-        
-        // Filter by status
-        if (status != null && !status.isEmpty()) {
-            payments = payments.stream()
-                .filter(p -> p.getStatus().toString().equalsIgnoreCase(status))
-                .toList();
-        }
-        
-        // Manual pagination
-        int start = Math.min(page * size, payments.size());
-        int end = Math.min(start + size, payments.size());
-        List<Payment> pageContent = payments.subList(start, end);
+        Payment.PaymentStatus paymentStatus = parseStatus(status);
+        int pageSize = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        Slice<Payment> payments = paymentService.getPaymentSlice(
+            paymentStatus, Math.max(page, 0), pageSize, afterCreatedAt, afterId);
         
         Map<String, Object> response = new HashMap<>();
-        response.put("transactions", pageContent);
-        response.put("totalCount", payments.size());
+        response.put("transactions", payments.getContent());
+        response.put("totalCount", paymentService.countPayments(paymentStatus));
         response.put("currentPage", page);
-        response.put("pageSize", size);
+        response.put("pageSize", pageSize);
+        response.put("hasNext", payments.hasNext());
+        // nextCursor: see KeysetCursor
+        if (payments.hasNext() && payments.hasContent()) {
+            Payment last = payments.getContent().get(payments.getNumberOfElements() - 1);
+            response.put("nextCursor", KeysetCursor.of(last.getCreatedAt(), last.getId()));
+        }
         
         return ResponseEntity.ok(response);
     }
     
     @GetMapping("/transaction/{id}")
     public ResponseEntity<Payment> getTransactionDetail(
-            @RequestHeader("Authorization") String token,
             @PathVariable Long id) {
-        
-        validateToken(token);
         Payment payment = paymentService.getPaymentById(id);
         return ResponseEntity.ok(payment);
     }
     
     @GetMapping("/statistics")
-    public ResponseEntity<Map<String, Object>> getPaymentStatistics(
-            @RequestHeader("Authorization") String token) {
+    public ResponseEntity<Map<String, Object>> getPaymentStatistics() {
         
-        validateToken(token);
+        Map<Payment.PaymentStatus, PaymentStatusTotal> totalsByStatus = totalsByStatus();
         
-        List<Payment> allPayments = paymentService.getAllPayments();
+        long totalTransactions = countOf(totalsByStatus.values());
+        long completedCount = countOf(totalsByStatus.get(Payment.PaymentStatus.COMPLETED));
+        long failedCount = countOf(totalsByStatus.get(Payment.PaymentStatus.FAILED));
+        long pendingCount = countOf(totalsByStatus.get(Payment.PaymentStatus.PENDING));
         
-        long completedCount = allPayments.stream()
-            .mapToLong(p -> p.getStatus() == Payment.PaymentStatus.COMPLETED ? 1 : 0)
-            .sum();
-            
-        long failedCount = allPayments.stream()
-            .mapToLong(p -> p.getStatus() == Payment.PaymentStatus.FAILED ? 1 : 0)
-            .sum();
-            
-        long pendingCount = allPayments.stream()
-            .mapToLong(p -> p.getStatus() == Payment.PaymentStatus.PENDING ? 1 : 0)
-            .sum();
-        
-        double successRate = allPayments.size() > 0 ? 
-            (double) completedCount / allPayments.size() * 100 : 0;
+        double successRate = totalTransactions > 0 ? 
+            (double) completedCount / totalTransactions * 100 : 0;
         
         Map<String, Object> stats = new HashMap<>();
-        stats.put("totalTransactions", allPayments.size());
+        stats.put("totalTransactions", totalTransactions);
         stats.put("completedCount", completedCount);
         stats.put("failedCount", failedCount);
         stats.put("pendingCount", pendingCount);
@@ -152,14 +124,40 @@ public class PaymentManagementController {
         return ResponseEntity.ok(stats);
     }
     
-    private void validateToken(String token) {
-        if (token == null || !token.startsWith("Bearer ")) {
-            throw new RuntimeException("Authorization header required");
+    private static Payment.PaymentStatus parseStatus(String status) {
+        if (status == null || status.isEmpty()) {
+            return null;
         }
-        
-        String jwt = token.substring(7);
-        if (!jwtUtil.validateToken(jwt)) {
-            throw new RuntimeException("Invalid or expired token");
+        try {
+            return Payment.PaymentStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new BusinessException("Invalid payment status: " + status);
+        }
+    }
+    
+    private Map<Payment.PaymentStatus, PaymentStatusTotal> totalsByStatus() {
+        Map<Payment.PaymentStatus, PaymentStatusTotal> totals = new EnumMap<>(Payment.PaymentStatus.class);
+        for (PaymentStatusTotal row : paymentService.getTotalsByStatus()) {
+            if (row.getStatus() != null) {
+                totals.put(row.getStatus(), row);
+            }
+        }
+        return totals;
+    }
+    
+    private static BigDecimal amountOf(PaymentStatusTotal total) {
+        return total != null && total.getTotalAmount() != null ? total.getTotalAmount() : BigDecimal.ZERO;
+    }
+    
+    private static long countOf(PaymentStatusTotal total) {
+        return total != null ? total.getTransactionCount() : 0;
+    }
+    
+    private static long countOf(Collection<PaymentStatusTotal> totals) {
+        long count = 0;
+        for (PaymentStatusTotal total : totals) {
+            count += total.getTransactionCount();
         }
+        return count;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,14 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class CreatePaymentsRequest {
+    private List<CreatePaymentRequest> payments;
+
+    // Constructors
+    public CreatePaymentsRequest() {}
+
+    // Getters and Setters
+    public List<CreatePaymentRequest> getPayments() { return payments; }
+    public void setPayments(List<CreatePaymentRequest> payments) { this.payments = payments; }
+}
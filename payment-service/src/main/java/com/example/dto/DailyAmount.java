@@ -0,0 +1,9 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface DailyAmount {
+    LocalDate getDay();
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,9 @@
+package com.example.dto;
+
+import com.example.entity.Payment;
+import java.math.BigDecimal;
+
+public interface PaymentMethodAmount {
+    Payment.PaymentMethod getMethod();
+    BigDecimal getTotalAmount();
+}
@@ -0,0 +1,48 @@
+package com.example.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * One payment status change as sent to order-service. {@code sequence} grows with every change, so the
+ * receiver can drop an event older than one it already applied; {@code eventId} identifies redeliveries.
+ */
+public class PaymentStatusEvent {
+    private String eventId;
+    private Long orderId;
+    private Long paymentId;
+    private String status;
+    private Long sequence;
+    private LocalDateTime occurredAt;
+
+    // Constructors
+    public PaymentStatusEvent() {}
+
+    public PaymentStatusEvent(String eventId, Long orderId, Long paymentId, String status, Long sequence,
+                              LocalDateTime occurredAt) {
+        this.eventId = eventId;
+        this.orderId = orderId;
+        this.paymentId = paymentId;
+        this.status = status;
+        this.sequence = sequence;
+        this.occurredAt = occurredAt;
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getPaymentId() { return paymentId; }
+    public void setPaymentId(Long paymentId) { this.paymentId = paymentId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getSequence() { return sequence; }
+    public void setSequence(Long sequence) { this.sequence = sequence; }
+
+    public LocalDateTime getOccurredAt() { return occurredAt; }
+    public void setOccurredAt(LocalDateTime occurredAt) { this.occurredAt = occurredAt; }
+}
@@ -0,0 +1,34 @@
+package com.example.dto;
+
+/**
+ * What order-service did with one event of a batch. REJECTED events can never apply (e.g. unknown order)
+ * and are not retried.
+ */
+public class PaymentStatusEventResult {
+    private String eventId;
+    private Outcome outcome;
+    private String error;
+
+    // Constructors
+    public PaymentStatusEventResult() {}
+
+    public PaymentStatusEventResult(String eventId, Outcome outcome, String error) {
+        this.eventId = eventId;
+        this.outcome = outcome;
+        this.error = error;
+    }
+
+    // Getters and Setters
+    public String getEventId() { return eventId; }
+    public void setEventId(String eventId) { this.eventId = eventId; }
+
+    public Outcome getOutcome() { return outcome; }
+    public void setOutcome(Outcome outcome) { this.outcome = outcome; }
+
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+
+    public enum Outcome {
+        APPLIED, IGNORED, REJECTED
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.dto;
+
+import com.example.entity.Payment;
+import java.math.BigDecimal;
+
+public interface PaymentStatusTotal {
+    Payment.PaymentStatus getStatus();
+    Long getTransactionCount();
+    BigDecimal getTotalAmount();
+}
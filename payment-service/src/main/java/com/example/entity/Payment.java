@@ -5,7 +5,13 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+    @Index(name = "idx_payments_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_payments_status_created_at_id", columnList = "status, created_at, id")
+}, uniqueConstraints = {
+    // One payment per order; also serves lookups by order id
+    @UniqueConstraint(name = "uk_payments_order_id", columnNames = "order_id")
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
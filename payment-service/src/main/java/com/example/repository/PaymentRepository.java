@@ -1,11 +1,18 @@
 package com.example.repository;
 
+import com.example.dto.DailyAmount;
+import com.example.dto.PaymentMethodAmount;
+import com.example.dto.PaymentStatusTotal;
 import com.example.entity.Payment;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,7 +20,11 @@ import java.util.Optional;
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     List<Payment> findByUserId(Long userId);
     List<Payment> findByOrderId(Long orderId);
+    List<Payment> findByOrderIdIn(Collection<Long> orderIds);
     List<Payment> findByStatus(Payment.PaymentStatus status);
+    Slice<Payment> findByStatus(Payment.PaymentStatus status, Pageable pageable);
+    Slice<Payment> findAllBy(Pageable pageable);
+    long countByStatus(Payment.PaymentStatus status);
     Optional<Payment> findByPaymentReference(String paymentReference);
     Optional<Payment> findByTransactionId(String transactionId);
     
@@ -22,4 +33,29 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
     @Query("SELECT p FROM Payment p WHERE p.method = :method AND p.status = 'COMPLETED'")
     List<Payment> findCompletedPaymentsByMethod(@Param("method") Payment.PaymentMethod method);
-}
\ No newline at end of file
+    
+    @Query("SELECT p.status AS status, COUNT(p) AS transactionCount, SUM(p.amount) AS totalAmount " +
+           "FROM Payment p GROUP BY p.status")
+    List<PaymentStatusTotal> sumByStatus();
+    
+    @Query("SELECT p.method AS method, SUM(p.amount) AS totalAmount FROM Payment p " +
+           "WHERE p.status = :status AND p.method IS NOT NULL GROUP BY p.method")
+    List<PaymentMethodAmount> sumByMethod(@Param("status") Payment.PaymentStatus status);
+    
+    @Query("SELECT CAST(p.processedAt AS LocalDate) AS day, SUM(p.amount) AS totalAmount FROM Payment p " +
+           "WHERE p.status = :status AND p.processedAt > :since " +
+           "GROUP BY CAST(p.processedAt AS LocalDate) ORDER BY CAST(p.processedAt AS LocalDate)")
+    List<DailyAmount> sumByProcessedDay(@Param("status") Payment.PaymentStatus status, @Param("since") LocalDateTime since);
+    
+    // Keyset pagination, see KeysetCursor (common-lib)
+    @Query("SELECT p FROM Payment p WHERE p.createdAt <= :createdAt " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Payment> findSliceAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.createdAt <= :createdAt " +
+           "AND (p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id)) " +
+           "ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Payment> findSliceByStatusAfter(@Param("status") Payment.PaymentStatus status, @Param("createdAt") LocalDateTime createdAt,
+                                          @Param("id") Long id, Pageable pageable);
+}
@@ -0,0 +1,174 @@
+package com.example.service;
+
+import com.example.dto.PaymentStatusEvent;
+import com.example.dto.PaymentStatusEventResult;
+import com.example.entity.PaymentOutboxEvent;
+import com.example.repository.PaymentOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sends queued payment status changes to order-service, up to {@code payments.webhook-outbox.batch-size}
+ * per call. Per order, events go out in the order they were written: an event is not picked up while an
+ * earlier one for the same order is still backing off or in flight.
+ * <p>
+ * A failed call is retried with jittered exponential backoff, capped at {@code max-backoff} but never given
+ * up, since dropping a status change would leave the order diverged. Only events order-service rejects
+ * outright (e.g. unknown order) are marked FAILED.
+ */
+@Service
+public class PaymentOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentOutboxRelay.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // order-service accepts at most 500 events per call
+    @Value("${payments.webhook-outbox.batch-size:200}")
+    private int batchSize;
+
+    @Value("${payments.webhook-outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${payments.webhook-outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+
+    // Must outlast a delivery (HTTP read timeout included), or a slow batch could be picked up twice
+    @Value("${payments.webhook-outbox.lease:2m}")
+    private Duration lease;
+
+    @Value("${payments.webhook-outbox.retention:7d}")
+    private Duration retention;
+
+    private Counter sent;
+    private Counter retried;
+    private Counter rejected;
+    private Timer deliveryLag;
+
+    @PostConstruct
+    void init() {
+        sent = Counter.builder("payment.webhook.outbox.sent").description("Status events delivered").register(meterRegistry);
+        retried = Counter.builder("payment.webhook.outbox.retries").description("Status events scheduled for retry").register(meterRegistry);
+        rejected = Counter.builder("payment.webhook.outbox.rejected").description("Status events rejected by order-service").register(meterRegistry);
+        deliveryLag = Timer.builder("payment.webhook.outbox.delivery.lag")
+                .description("Time from a payment status change until order-service acknowledged it")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.webhook-outbox.poll-interval-ms:500}")
+    public void relay() {
+        // Keep draining while batches come back full instead of waiting a poll interval each
+        while (relayBatch() == batchSize) {
+            logger.debug("Webhook outbox backlog remains, relaying next batch");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${payments.webhook-outbox.purge-interval-ms:3600000}")
+    public void purgeSent() {
+        int deleted = paymentOutboxRepository.deleteSentBefore(LocalDateTime.now().minus(retention));
+        if (deleted > 0) {
+            logger.info("Purged {} delivered webhook outbox events", deleted);
+        }
+    }
+
+    private int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> dueIds = paymentOutboxRepository.findDueIds(now, PageRequest.of(0, batchSize));
+        if (dueIds.isEmpty()) {
+            return 0;
+        }
+        String token = UUID.randomUUID().toString();
+        if (paymentOutboxRepository.claim(dueIds, token, now, now.plus(lease)) == 0) {
+            return dueIds.size();
+        }
+        deliver(paymentOutboxRepository.findByClaimTokenOrderByIdAsc(token));
+        return dueIds.size();
+    }
+
+    private void deliver(List<PaymentOutboxEvent> batch) {
+        List<PaymentStatusEvent> events = new ArrayList<>(batch.size());
+        for (PaymentOutboxEvent event : batch) {
+            events.add(new PaymentStatusEvent(event.getEventId(), event.getOrderId(), event.getPaymentId(),
+                    event.getPaymentStatus().name(), event.getId(), event.getCreatedAt()));
+        }
+        Map<String, PaymentStatusEventResult> results = new HashMap<>();
+        try {
+            for (PaymentStatusEventResult result : webhookService.sendPaymentStatusEvents(events)) {
+                results.put(result.getEventId(), result);
+            }
+        } catch (Exception e) {
+            logger.warn("Payment status webhook batch of {} events failed, will retry: {}", batch.size(), e.toString());
+            batch.forEach(event -> retryLater(event, e.toString()));
+            paymentOutboxRepository.saveAll(batch);
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> sentIds = new ArrayList<>();
+        List<PaymentOutboxEvent> unsent = new ArrayList<>();
+        for (PaymentOutboxEvent event : batch) {
+            PaymentStatusEventResult result = results.get(event.getEventId());
+            if (result == null) {
+                retryLater(event, "No result returned for event " + event.getEventId());
+                unsent.add(event);
+            } else if (result.getOutcome() == PaymentStatusEventResult.Outcome.REJECTED) {
+                logger.error("order-service rejected payment status {} for order {}: {}",
+                        event.getPaymentStatus(), event.getOrderId(), result.getError());
+                event.setStatus(PaymentOutboxEvent.Status.FAILED);
+                event.setClaimToken(null);
+                event.setLastError(truncate(result.getError()));
+                rejected.increment();
+                unsent.add(event);
+            } else {
+                sentIds.add(event.getId());
+                deliveryLag.record(Duration.between(event.getCreatedAt(), now));
+            }
+        }
+        if (!sentIds.isEmpty()) {
+            paymentOutboxRepository.markSent(sentIds, now);
+            sent.increment(sentIds.size());
+        }
+        paymentOutboxRepository.saveAll(unsent);
+    }
+
+    private void retryLater(PaymentOutboxEvent event, String error) {
+        long backoffMillis = Math.min(maxBackoff.toMillis(),
+                initialBackoff.toMillis() << Math.min(event.getAttempts() - 1, 20));
+        // +-20% jitter so a backlog that failed together does not all come due together
+        backoffMillis = (long) (backoffMillis * (0.8 + 0.4 * ThreadLocalRandom.current().nextDouble()));
+        event.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+        event.setClaimToken(null);
+        event.setLastError(truncate(error));
+        retried.increment();
+    }
+
+    private static String truncate(String error) {
+        return error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+}
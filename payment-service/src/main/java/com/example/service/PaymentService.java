@@ -1,15 +1,34 @@
 package com.example.service;
 
+import com.example.common.exception.BusinessException;
 import com.example.common.exception.ResourceNotFoundException;
+import com.example.common.response.KeysetCursor;
+import com.example.dto.CreatePaymentRequest;
+import com.example.dto.CreatePaymentResult;
+import com.example.dto.DailyAmount;
+import com.example.dto.PaymentMethodAmount;
+import com.example.dto.PaymentStatusTotal;
 import com.example.entity.Payment;
 import com.example.repository.PaymentRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
 @Service
@@ -17,6 +36,9 @@ public class PaymentService {
 
     private static final Logger logger = LoggerFactory.getLogger(PaymentService.class);
     private static final double SUCCESS_RATE = 0.9;
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt", "id");
+    private static final int MAX_BATCH_SIZE = 500;
+    private static final int MAX_BATCH_ATTEMPTS = 3;
 
     @Autowired
     private PaymentRepository paymentRepository;
@@ -24,10 +46,45 @@ public class PaymentService {
     @Autowired
     private WebhookService webhookService;
 
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
     }
 
+    /**
+     * Newest-first slice of payments, optionally filtered by status; with a {@link KeysetCursor} it seeks past
+     * the cursor instead of using the page offset.
+     */
+    public Slice<Payment> getPaymentSlice(Payment.PaymentStatus status, int page, int size,
+                                          LocalDateTime afterCreatedAt, Long afterId) {
+        if (afterCreatedAt != null && afterId != null) {
+            PageRequest limit = PageRequest.of(0, size);
+            return status == null
+                    ? paymentRepository.findSliceAfter(afterCreatedAt, afterId, limit)
+                    : paymentRepository.findSliceByStatusAfter(status, afterCreatedAt, afterId, limit);
+        }
+        PageRequest pageable = PageRequest.of(page, size, NEWEST_FIRST);
+        return status == null ? paymentRepository.findAllBy(pageable) : paymentRepository.findByStatus(status, pageable);
+    }
+
+    public long countPayments(Payment.PaymentStatus status) {
+        return status == null ? paymentRepository.count() : paymentRepository.countByStatus(status);
+    }
+
+    public List<PaymentStatusTotal> getTotalsByStatus() {
+        return paymentRepository.sumByStatus();
+    }
+
+    public List<PaymentMethodAmount> getAmountsByMethod(Payment.PaymentStatus status) {
+        return paymentRepository.sumByMethod(status);
+    }
+
+    public List<DailyAmount> getDailyProcessedAmounts(Payment.PaymentStatus status, LocalDateTime since) {
+        return paymentRepository.sumByProcessedDay(status, since);
+    }
+
     public Payment getPaymentById(Long id) {
         return paymentRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Payment not found with id: " + id));
@@ -50,9 +107,23 @@ public class PaymentService {
         payment.setPaymentReference("PAY-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase());
         payment.setStatus(Payment.PaymentStatus.PENDING);
         payment.setCreatedAt(LocalDateTime.now());
-        return paymentRepository.save(payment);
+        try {
+            return paymentRepository.save(payment);
+        } catch (DataIntegrityViolationException e) {
+            // An order has at most one payment: answer with the one already there
+            List<Payment> existing = payment.getOrderId() != null
+                    ? paymentRepository.findByOrderId(payment.getOrderId()) : List.of();
+            if (existing.isEmpty()) {
+                throw e;
+            }
+            return existing.get(0);
+        }
     }
 
+    /**
+     * Processes the payment and queues its outcome for order-service in the same transaction.
+     */
+    @Transactional
     public Payment processPayment(Long id) {
         Payment payment = getPaymentById(id);
         
@@ -74,21 +145,27 @@ public class PaymentService {
         
         Payment savedPayment = paymentRepository.save(payment);
         
-        // Send webhook to order service
-        webhookService.notifyOrderStatusChange(payment.getOrderId(), payment.getStatus().toString());
+        // Queue webhook to order service, sent once this transaction commits
+        webhookService.notifyOrderStatusChange(savedPayment);
         
         return savedPayment;
     }
 
+    @Transactional
     public Payment updatePaymentStatus(Long id, Payment.PaymentStatus status) {
         Payment payment = getPaymentById(id);
+        Payment.PaymentStatus previous = payment.getStatus();
         payment.setStatus(status);
         
         if (status == Payment.PaymentStatus.COMPLETED || status == Payment.PaymentStatus.FAILED) {
             payment.setProcessedAt(LocalDateTime.now());
         }
         
-        return paymentRepository.save(payment);
+        Payment savedPayment = paymentRepository.save(payment);
+        if (previous != status) {
+            webhookService.notifyOrderStatusChange(savedPayment);
+        }
+        return savedPayment;
     }
 
     public void deletePayment(Long id) {
@@ -100,6 +177,106 @@ public class PaymentService {
         return paymentRepository.findCompletedPaymentsByMethod(method);
     }
 
+    /**
+     * Creates the payments of a batch of orders in one transaction. Idempotent per order: an order that already
+     * has a payment for the same user and amount gets EXISTING with that payment's id, so a caller retrying a
+     * batch never double-charges; one with a different payment is REJECTED. Invalid lines are REJECTED without
+     * failing the rest. Only other services may call it (service token).
+     * <p>
+     * If a concurrent call creates a payment for one of the orders first, the unique {@code order_id} constraint
+     * rolls the batch back and it is read again, so that order comes back EXISTING.
+     */
+    public List<CreatePaymentResult> createPaymentsForOrders(List<CreatePaymentRequest> requests) {
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new BusinessException("At most " + MAX_BATCH_SIZE + " payments per batch");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> createPaymentsOnce(requests));
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= MAX_BATCH_ATTEMPTS) {
+                    throw e;
+                }
+                logger.info("Payment batch of {} orders raced a concurrent payment creation, reading it again",
+                        requests.size());
+            }
+        }
+    }
+
+    private List<CreatePaymentResult> createPaymentsOnce(List<CreatePaymentRequest> requests) {
+        Set<Long> orderIds = new HashSet<>();
+        for (CreatePaymentRequest request : requests) {
+            if (request.getOrderId() != null) {
+                orderIds.add(request.getOrderId());
+            }
+        }
+        // Payments created by this batch are added too, so the same order twice reports the first line's payment
+        Map<Long, Payment> paymentsByOrder = new HashMap<>();
+        for (Payment payment : paymentRepository.findByOrderIdIn(orderIds)) {
+            paymentsByOrder.merge(payment.getOrderId(), payment, (first, second) -> first.getId() <= second.getId() ? first : second);
+        }
+
+        List<CreatePaymentResult> results = new ArrayList<>(requests.size());
+        List<Payment> created = new ArrayList<>();
+        for (CreatePaymentRequest request : requests) {
+            Long orderId = request.getOrderId();
+            Payment existing = orderId != null ? paymentsByOrder.get(orderId) : null;
+            if (existing != null) {
+                // A retry must describe the same payment; anything else is not reported as already done
+                if (!Objects.equals(existing.getUserId(), request.getUserId()) || request.getAmount() == null
+                        || existing.getAmount().compareTo(request.getAmount()) != 0) {
+                    results.add(new CreatePaymentResult(orderId, null, CreatePaymentResult.Outcome.REJECTED,
+                            "Order " + orderId + " already has a payment for a different user or amount"));
+                } else {
+                    results.add(new CreatePaymentResult(orderId, existing.getId(), CreatePaymentResult.Outcome.EXISTING, null));
+                }
+                continue;
+            }
+            String error = validate(request);
+            if (error != null) {
+                results.add(new CreatePaymentResult(orderId, null, CreatePaymentResult.Outcome.REJECTED, error));
+                continue;
+            }
+            Payment payment = new Payment(orderId, request.getUserId(), request.getAmount(),
+                    Payment.PaymentMethod.valueOf(request.getMethod().toUpperCase()));
+            payment.setPaymentReference("PAY-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase());
+            payment.setStatus(Payment.PaymentStatus.PENDING);
+            payment.setCreatedAt(LocalDateTime.now());
+            created.add(payment);
+            paymentsByOrder.put(orderId, payment);
+            results.add(new CreatePaymentResult(orderId, null, CreatePaymentResult.Outcome.CREATED, null));
+        }
+
+        Map<Long, Long> createdIds = new HashMap<>();
+        for (Payment payment : paymentRepository.saveAll(created)) {
+            createdIds.put(payment.getOrderId(), payment.getId());
+        }
+        for (CreatePaymentResult result : results) {
+            if (result.getPaymentId() == null && result.getOutcome() != CreatePaymentResult.Outcome.REJECTED) {
+                result.setPaymentId(createdIds.get(result.getOrderId()));
+            }
+        }
+        return results;
+    }
+
+    private static String validate(CreatePaymentRequest request) {
+        if (request.getOrderId() == null || request.getUserId() == null) {
+            return "orderId and userId are required";
+        }
+        if (request.getAmount() == null || request.getAmount().signum() <= 0) {
+            return "amount must be positive";
+        }
+        if (request.getMethod() == null) {
+            return "method is required";
+        }
+        try {
+            Payment.PaymentMethod.valueOf(request.getMethod().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "Unknown payment method: " + request.getMethod();
+        }
+        return null;
+    }
+
     public Payment createPaymentForOrder(Long orderId, Long userId, Payment.PaymentMethod method, java.math.BigDecimal amount) {
         Payment payment = new Payment();
         payment.setOrderId(orderId);
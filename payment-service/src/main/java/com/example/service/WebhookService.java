@@ -1,42 +1,70 @@
 package com.example.service;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import com.example.common.config.ServiceConfig;
+import com.example.common.response.ApiResponse;
+import com.example.common.security.ServiceTokenProvider;
+import com.example.dto.PaymentStatusEvent;
+import com.example.dto.PaymentStatusEventResult;
+import com.example.entity.Payment;
+import com.example.entity.PaymentOutboxEvent;
+import com.example.repository.PaymentOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
+/**
+ * Payment status webhooks to order-service. Changes are queued in {@code payment_outbox} inside the payment's
+ * own transaction and sent later in batches by {@link PaymentOutboxRelay}, so a slow or unavailable
+ * order-service delays the order update instead of losing it. Deliveries carry the service token.
+ */
 @Service
 public class WebhookService {
 
-    private static final Logger logger = LoggerFactory.getLogger(WebhookService.class);
-    private static final String ORDER_SERVICE_WEBHOOK_URL = "http://localhost:8083/api/webhooks/payment-status";
+    private static final String PAYMENT_STATUS_BATCH_WEBHOOK_PATH = "/api/webhooks/payment-status/batch";
+    private static final ParameterizedTypeReference<ApiResponse<List<PaymentStatusEventResult>>> RESULTS =
+            new ParameterizedTypeReference<>() {};
 
     @Autowired
     private RestTemplate restTemplate;
 
-    public void notifyOrderStatusChange(Long orderId, String paymentStatus) {
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+    @Autowired
+    private ServiceConfig serviceConfig;
 
-            Map<String, Object> payload = new HashMap<>();
-            payload.put("orderId", orderId);
-            payload.put("status", paymentStatus);
+    @Autowired
+    private PaymentOutboxRepository paymentOutboxRepository;
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(payload, headers);
+    @Autowired
+    private ServiceTokenProvider serviceTokenProvider;
 
-            restTemplate.postForObject(ORDER_SERVICE_WEBHOOK_URL, entity, Object.class);
-            logger.info("Sent payment status webhook for order {}: {}", orderId, paymentStatus);
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyOrderStatusChange(Payment payment) {
+        paymentOutboxRepository.save(new PaymentOutboxEvent(payment.getOrderId(), payment.getId(),
+                payment.getStatus(), UUID.randomUUID().toString()));
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to send payment status webhook for order {}: {}", orderId, paymentStatus, e);
-        }
+    /**
+     * Delivers events in the given order in one call.
+     *
+     * @throws org.springframework.web.client.RestClientException if the batch could not be delivered
+     */
+    public List<PaymentStatusEventResult> sendPaymentStatusEvents(List<PaymentStatusEvent> events) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+        ApiResponse<List<PaymentStatusEventResult>> response = restTemplate.exchange(
+                serviceConfig.getOrderServiceUrl() + PAYMENT_STATUS_BATCH_WEBHOOK_PATH, HttpMethod.POST,
+                new HttpEntity<>(Map.of("events", events), headers), RESULTS).getBody();
+        return response != null && response.getData() != null ? response.getData() : List.of();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.example.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "products.hot-stock")
+public class HotStockProperties {
+
+    private boolean enabled = false;
+    private List<Long> productIds = new ArrayList<>();
+    private int stripes = 8;
+    private Duration flushInterval = Duration.ofMillis(500);
+    private String journalDir = "data/stock-journal";
+    private Duration lease = Duration.ofSeconds(30);
+
+    // Getters and Setters
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+    public List<Long> getProductIds() { return productIds; }
+    public void setProductIds(List<Long> productIds) { this.productIds = productIds; }
+
+    public int getStripes() { return stripes; }
+    public void setStripes(int stripes) { this.stripes = stripes; }
+
+    public Duration getFlushInterval() { return flushInterval; }
+    public void setFlushInterval(Duration flushInterval) { this.flushInterval = flushInterval; }
+
+    public String getJournalDir() { return journalDir; }
+    public void setJournalDir(String journalDir) { this.journalDir = journalDir; }
+
+    public Duration getLease() { return lease; }
+    public void setLease(Duration lease) { this.lease = lease; }
+}
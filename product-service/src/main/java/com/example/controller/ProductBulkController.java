@@ -0,0 +1,53 @@
+package com.example.controller;
+
+import com.example.common.response.ApiResponse;
+import com.example.dto.ProductImportResult;
+import com.example.service.ProductBulkService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/products")
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Product Bulk Operations", description = "Streaming catalog import and export")
+public class ProductBulkController {
+
+    @Autowired
+    private ProductBulkService productBulkService;
+
+    @PostMapping("/import")
+    @Operation(summary = "Import products", description = "Stream a CSV (header row required, at least name and price) or NDJSON body; valid rows are inserted in batches and invalid ones reported by line", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<ApiResponse<ProductImportResult>> importProducts(
+            @Parameter(description = "csv or ndjson; defaults to the Content-Type") @RequestParam(required = false) String format,
+            HttpServletRequest request) throws IOException {
+        ProductBulkService.Format resolved = ProductBulkService.Format.resolve(format, request.getContentType());
+        ProductImportResult result = productBulkService.importProducts(request.getInputStream(), resolved);
+        return ResponseEntity.ok(ApiResponse.success(
+                "Imported " + result.getImported() + " of " + result.getTotalRows() + " products", result));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export products", description = "Stream the whole catalog as CSV or NDJSON, ordered by id", security = @SecurityRequirement(name = "bearerAuth"))
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "csv or ndjson") @RequestParam(defaultValue = "csv") String format) {
+        ProductBulkService.Format resolved = ProductBulkService.Format.resolve(format, null);
+        boolean csv = resolved == ProductBulkService.Format.CSV;
+        StreamingResponseBody body = output -> productBulkService.exportProducts(output, resolved);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=products." + (csv ? "csv" : "ndjson"))
+                .body(body);
+    }
+}
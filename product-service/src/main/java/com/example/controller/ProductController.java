@@ -1,6 +1,11 @@
 package com.example.controller;
 
 import com.example.common.response.ApiResponse;
+import com.example.dto.ProductBrowseCriteria;
+import com.example.dto.ProductBrowseResponse;
+import com.example.dto.ProductPrice;
+import com.example.dto.ProductSearchCriteria;
+import com.example.dto.ProductSummary;
 import com.example.entity.Product;
 import com.example.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,6 +18,7 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
 import jakarta.validation.Valid;
+import java.math.BigDecimal;
 import java.util.List;
 
 @RestController
@@ -21,13 +27,15 @@ import java.util.List;
 @Tag(name = "Product Management", description = "Product catalog and inventory operations")
 public class ProductController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private ProductService productService;
 
     @GetMapping
     @Operation(summary = "Get all products", description = "Retrieve all products in the catalog")
-    public ResponseEntity<ApiResponse<List<Product>>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> getAllProducts() {
+        List<ProductSummary> products = productService.getAllProducts();
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
@@ -38,24 +46,62 @@ public class ProductController {
         return ResponseEntity.ok(ApiResponse.success(product));
     }
 
+    @GetMapping("/prices")
+    @Operation(summary = "Get product prices", description = "Current price, name, status and last update time of up to 500 products in one call; unknown ids are left out")
+    public ResponseEntity<ApiResponse<List<ProductPrice>>> getProductPrices(@Parameter(description = "Product IDs, comma separated") @RequestParam List<Long> ids) {
+        return ResponseEntity.ok(ApiResponse.success(productService.getProductPrices(ids)));
+    }
+
     @GetMapping("/available")
     @Operation(summary = "Get available products", description = "Retrieve all products currently in stock")
-    public ResponseEntity<ApiResponse<List<Product>>> getAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> getAvailableProducts() {
+        List<ProductSummary> products = productService.getAvailableProducts();
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
     @GetMapping("/category/{category}")
     @Operation(summary = "Get products by category", description = "Retrieve products filtered by category")
-    public ResponseEntity<ApiResponse<List<Product>>> getProductsByCategory(@Parameter(description = "Product category") @PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> getProductsByCategory(@Parameter(description = "Product category") @PathVariable String category) {
+        List<ProductSummary> products = productService.getProductsByCategory(category);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
+    @GetMapping("/browse")
+    @Operation(summary = "Browse products with facets", description = "Page of ACTIVE products matching the filters, plus counts per category, brand, price range and availability. Values of one filter are OR-ed, filters are AND-ed; each facet's counts ignore its own filter")
+    public ResponseEntity<ApiResponse<ProductBrowseResponse>> browseProducts(
+            @Parameter(description = "Categories") @RequestParam(required = false) List<String> category,
+            @Parameter(description = "Brands") @RequestParam(required = false) List<String> brand,
+            @Parameter(description = "Price ranges as returned in the price facet, e.g. 50-100 or 1000+") @RequestParam(required = false) List<String> price,
+            @Parameter(description = "in_stock or out_of_stock") @RequestParam(required = false) List<String> availability,
+            @Parameter(description = "Page number (0-based)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Page size (max 100)") @RequestParam(defaultValue = "20") int size) {
+        ProductBrowseCriteria criteria = new ProductBrowseCriteria();
+        criteria.setCategories(category);
+        criteria.setBrands(brand);
+        criteria.setPriceRanges(price);
+        criteria.setAvailability(availability);
+        return ResponseEntity.ok(ApiResponse.success(productService.browseProducts(criteria,
+                Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE))));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search products", description = "Search products by name")
-    public ResponseEntity<ApiResponse<List<Product>>> searchProducts(@Parameter(description = "Product name to search") @RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
+    @Operation(summary = "Search products", description = "Full-text search over name, description, brand and category, with prefix and typo tolerance, ranked by relevance")
+    public ResponseEntity<ApiResponse<List<ProductSummary>>> searchProducts(
+            @Parameter(description = "Search text") @RequestParam(required = false) String q,
+            @Parameter(description = "Search text (older name of q)") @RequestParam(required = false) String name,
+            @Parameter(description = "Only this category") @RequestParam(required = false) String category,
+            @Parameter(description = "Only this brand") @RequestParam(required = false) String brand,
+            @Parameter(description = "Minimum price") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "Maximum price") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "Only active products with stock") @RequestParam(defaultValue = "false") boolean inStock,
+            @Parameter(description = "Maximum number of results") @RequestParam(defaultValue = "20") int limit) {
+        ProductSearchCriteria criteria = new ProductSearchCriteria();
+        criteria.setCategory(category);
+        criteria.setBrand(brand);
+        criteria.setMinPrice(minPrice);
+        criteria.setMaxPrice(maxPrice);
+        criteria.setInStock(inStock);
+        List<ProductSummary> products = productService.searchProducts(q != null ? q : name, criteria, limit);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
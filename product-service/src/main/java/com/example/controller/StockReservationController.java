@@ -0,0 +1,60 @@
+package com.example.controller;
+
+import com.example.common.response.ApiResponse;
+import com.example.dto.StockReleaseRequest;
+import com.example.dto.StockReservationRequest;
+import com.example.entity.StockReservation;
+import com.example.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/products/stock/reservations")
+@Tag(name = "Stock Reservations", description = "Reserve, commit and release product stock")
+public class StockReservationController {
+
+    @Autowired
+    private StockReservationService stockReservationService;
+
+    @PostMapping
+    @Operation(summary = "Reserve stock", description = "Hold stock for every line of a cart in one transaction, all or nothing, until commit or release")
+    public ResponseEntity<ApiResponse<StockReservation>> reserve(@RequestBody StockReservationRequest request) {
+        StockReservation reservation = stockReservationService.reserve(request.getItems());
+        return ResponseEntity.ok(ApiResponse.success("Stock reserved", reservation));
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get reservation", description = "Retrieve a stock reservation by its ID")
+    public ResponseEntity<ApiResponse<StockReservation>> getReservation(@Parameter(description = "Reservation ID") @PathVariable Long id) {
+        return ResponseEntity.ok(ApiResponse.success(stockReservationService.getReservation(id)));
+    }
+
+    @PostMapping("/{id}/commit")
+    @Operation(summary = "Commit reservation", description = "Make a held reservation permanent; repeating the call is a no-op")
+    public ResponseEntity<ApiResponse<StockReservation>> commit(@Parameter(description = "Reservation ID") @PathVariable Long id) {
+        StockReservation reservation = stockReservationService.commit(id);
+        return ResponseEntity.ok(ApiResponse.success("Reservation committed", reservation));
+    }
+
+    @PostMapping("/{id}/release")
+    @Operation(summary = "Release reservation", description = "Return held stock to the product; repeating the call is a no-op")
+    public ResponseEntity<ApiResponse<StockReservation>> release(@Parameter(description = "Reservation ID") @PathVariable Long id) {
+        StockReservation reservation = stockReservationService.release(id);
+        return ResponseEntity.ok(ApiResponse.success("Reservation released", reservation));
+    }
+
+    @PostMapping("/release")
+    @Operation(summary = "Release reservations", description = "Release a batch of reservations; already released, committed or unknown ids are skipped")
+    public ResponseEntity<ApiResponse<Map<String, Integer>>> releaseAll(@RequestBody StockReleaseRequest request) {
+        List<Long> ids = request.getReservationIds() != null ? request.getReservationIds() : List.of();
+        int released = stockReservationService.releaseAll(ids);
+        return ResponseEntity.ok(ApiResponse.success("Reservations released", Map.of("requested", ids.size(), "released", released)));
+    }
+}
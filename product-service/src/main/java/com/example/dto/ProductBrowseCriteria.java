@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class ProductBrowseCriteria {
+    // Values within one facet are OR-ed, facets are AND-ed
+    private List<String> categories;
+    private List<String> brands;
+    private List<String> priceRanges;
+    private List<String> availability;
+
+    // Constructors
+    public ProductBrowseCriteria() {}
+
+    // Getters and Setters
+    public List<String> getCategories() { return categories; }
+    public void setCategories(List<String> categories) { this.categories = categories; }
+
+    public List<String> getBrands() { return brands; }
+    public void setBrands(List<String> brands) { this.brands = brands; }
+
+    public List<String> getPriceRanges() { return priceRanges; }
+    public void setPriceRanges(List<String> priceRanges) { this.priceRanges = priceRanges; }
+
+    public List<String> getAvailability() { return availability; }
+    public void setAvailability(List<String> availability) { this.availability = availability; }
+}
@@ -0,0 +1,41 @@
+package com.example.dto;
+
+import java.util.List;
+import java.util.Map;
+
+public class ProductBrowseResponse {
+    private List<ProductSummary> products;
+    private int page;
+    private int size;
+    private long totalElements;
+    // facet name -> value -> number of matching products; each facet ignores its own filter
+    private Map<String, Map<String, Long>> facets;
+
+    // Constructors
+    public ProductBrowseResponse() {}
+
+    public ProductBrowseResponse(List<ProductSummary> products, int page, int size, long totalElements,
+                                 Map<String, Map<String, Long>> facets) {
+        this.products = products;
+        this.page = page;
+        this.size = size;
+        this.totalElements = totalElements;
+        this.facets = facets;
+    }
+
+    // Getters and Setters
+    public List<ProductSummary> getProducts() { return products; }
+    public void setProducts(List<ProductSummary> products) { this.products = products; }
+
+    public int getPage() { return page; }
+    public void setPage(int page) { this.page = page; }
+
+    public int getSize() { return size; }
+    public void setSize(int size) { this.size = size; }
+
+    public long getTotalElements() { return totalElements; }
+    public void setTotalElements(long totalElements) { this.totalElements = totalElements; }
+
+    public Map<String, Map<String, Long>> getFacets() { return facets; }
+    public void setFacets(Map<String, Map<String, Long>> facets) { this.facets = facets; }
+}
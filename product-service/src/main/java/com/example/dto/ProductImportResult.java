@@ -0,0 +1,53 @@
+package com.example.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductImportResult {
+    private long totalRows;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    // True when more rows failed than are listed in errors
+    private boolean errorsTruncated;
+
+    // Constructors
+    public ProductImportResult() {}
+
+    // Getters and Setters
+    public long getTotalRows() { return totalRows; }
+    public void setTotalRows(long totalRows) { this.totalRows = totalRows; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isErrorsTruncated() { return errorsTruncated; }
+    public void setErrorsTruncated(boolean errorsTruncated) { this.errorsTruncated = errorsTruncated; }
+
+    public static class RowError {
+        // 1-based line in the uploaded file where the record starts
+        private long line;
+        private String message;
+
+        // Constructors
+        public RowError() {}
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        // Getters and Setters
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
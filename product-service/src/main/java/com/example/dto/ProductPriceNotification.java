@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import java.util.List;
+
+/**
+ * Body of the product-prices webhook sent to order-service: current price and name of the products
+ * created or updated since the last notification, and the ids of the ones deleted.
+ */
+public class ProductPriceNotification {
+    private List<ProductPrice> products;
+    private List<Long> removedIds;
+
+    // Constructors
+    public ProductPriceNotification() {}
+
+    public ProductPriceNotification(List<ProductPrice> products, List<Long> removedIds) {
+        this.products = products;
+        this.removedIds = removedIds;
+    }
+
+    // Getters and Setters
+    public List<ProductPrice> getProducts() { return products; }
+    public void setProducts(List<ProductPrice> products) { this.products = products; }
+
+    public List<Long> getRemovedIds() { return removedIds; }
+    public void setRemovedIds(List<Long> removedIds) { this.removedIds = removedIds; }
+}
@@ -0,0 +1,30 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+public class ProductSearchCriteria {
+    private String category;
+    private String brand;
+    private BigDecimal minPrice;
+    private BigDecimal maxPrice;
+    private boolean inStock;
+
+    // Constructors
+    public ProductSearchCriteria() {}
+
+    // Getters and Setters
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public BigDecimal getMinPrice() { return minPrice; }
+    public void setMinPrice(BigDecimal minPrice) { this.minPrice = minPrice; }
+
+    public BigDecimal getMaxPrice() { return maxPrice; }
+    public void setMaxPrice(BigDecimal maxPrice) { this.maxPrice = maxPrice; }
+
+    public boolean isInStock() { return inStock; }
+    public void setInStock(boolean inStock) { this.inStock = inStock; }
+}
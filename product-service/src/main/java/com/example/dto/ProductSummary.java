@@ -0,0 +1,57 @@
+package com.example.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * List view of a product: no description or timestamps. Built from the catalog snapshot, not from entities.
+ */
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private BigDecimal price;
+    private Integer stockQuantity;
+    private String category;
+    private String brand;
+    private String imageUrl;
+    private String status;
+
+    // Constructors
+    public ProductSummary() {}
+
+    public ProductSummary(Long id, String name, BigDecimal price, Integer stockQuantity, String category,
+                          String brand, String imageUrl, String status) {
+        this.id = id;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+        this.category = category;
+        this.brand = brand;
+        this.imageUrl = imageUrl;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public BigDecimal getPrice() { return price; }
+    public void setPrice(BigDecimal price) { this.price = price; }
+
+    public Integer getStockQuantity() { return stockQuantity; }
+    public void setStockQuantity(Integer stockQuantity) { this.stockQuantity = stockQuantity; }
+
+    public String getCategory() { return category; }
+    public void setCategory(String category) { this.category = category; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public String getImageUrl() { return imageUrl; }
+    public void setImageUrl(String imageUrl) { this.imageUrl = imageUrl; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,14 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class StockReleaseRequest {
+    private List<Long> reservationIds;
+
+    // Constructors
+    public StockReleaseRequest() {}
+
+    // Getters and Setters
+    public List<Long> getReservationIds() { return reservationIds; }
+    public void setReservationIds(List<Long> reservationIds) { this.reservationIds = reservationIds; }
+}
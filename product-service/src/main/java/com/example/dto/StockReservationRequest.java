@@ -0,0 +1,34 @@
+package com.example.dto;
+
+import java.util.List;
+
+public class StockReservationRequest {
+    private List<Item> items;
+
+    // Constructors
+    public StockReservationRequest() {}
+
+    // Getters and Setters
+    public List<Item> getItems() { return items; }
+    public void setItems(List<Item> items) { this.items = items; }
+
+    public static class Item {
+        private Long productId;
+        private Integer quantity;
+
+        // Constructors
+        public Item() {}
+
+        public Item(Long productId, Integer quantity) {
+            this.productId = productId;
+            this.quantity = quantity;
+        }
+
+        // Getters and Setters
+        public Long getProductId() { return productId; }
+        public void setProductId(Long productId) { this.productId = productId; }
+
+        public Integer getQuantity() { return quantity; }
+        public void setQuantity(Integer quantity) { this.quantity = quantity; }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Highest stock journal sequence already applied to products.stock_quantity. Written in the same
+ * transaction as the stock updates, so recovery knows exactly which journal entries to replay.
+ * <p>
+ * Journal sequences are local to one instance, so the row also records which instance owns hot stock
+ * mode and until when; a second instance cannot start the mode while that lease is live.
+ */
+@Entity
+@Table(name = "hot_stock_checkpoints")
+public class HotStockCheckpoint {
+    public static final Long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id = SINGLETON_ID;
+    
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence = 0L;
+    
+    @Column(name = "owner_instance")
+    private String ownerInstance;
+    
+    @Column(name = "lease_until")
+    private LocalDateTime leaseUntil;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructors
+    public HotStockCheckpoint() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public Long getLastSequence() { return lastSequence; }
+    public void setLastSequence(Long lastSequence) { this.lastSequence = lastSequence; }
+    
+    public String getOwnerInstance() { return ownerInstance; }
+    public void setOwnerInstance(String ownerInstance) { this.ownerInstance = ownerInstance; }
+    
+    public LocalDateTime getLeaseUntil() { return leaseUntil; }
+    public void setLeaseUntil(LocalDateTime leaseUntil) { this.leaseUntil = leaseUntil; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -1,11 +1,19 @@
 package com.example.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "products")
+@DynamicUpdate
+@Table(name = "products", indexes = {
+        // Created by Flyway (db/migration V2, V3); declared here so the entity matches the schema
+        @Index(name = "idx_products_updated_at_id", columnList = "updated_at, id"),
+        @Index(name = "idx_products_status_stock", columnList = "status, stock_quantity"),
+        @Index(name = "idx_products_category_price", columnList = "category, price"),
+        @Index(name = "idx_products_brand", columnList = "brand")
+})
 public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,66 @@
+package com.example.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "stock_reservations", indexes = {
+    @Index(name = "idx_stock_reservations_status_expires_at", columnList = "status, expires_at")
+})
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status = ReservationStatus.HELD;
+    
+    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @JoinColumn(name = "reservation_id", nullable = false)
+    @OrderBy("productId")
+    private List<StockReservationItem> items = new ArrayList<>();
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt = LocalDateTime.now();
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt = LocalDateTime.now();
+    
+    // A HELD reservation past this time is released by the expiry sweep
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    // Constructors
+    public StockReservation() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    
+    public ReservationStatus getStatus() { return status; }
+    public void setStatus(ReservationStatus status) { this.status = status; }
+    
+    public List<StockReservationItem> getItems() { return items; }
+    public void setItems(List<StockReservationItem> items) { this.items = items; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+    
+    /**
+     * HELD: stock already taken off products.stock_quantity, waiting for the order to be paid.
+     * COMMITTED: the sale went through, stock stays decremented.
+     * RELEASED: the hold was given back to products.stock_quantity.
+     */
+    public enum ReservationStatus {
+        HELD, COMMITTED, RELEASED
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.event;
+
+/**
+ * Published after a product row changes, so in-memory views of the catalog can update just the
+ * affected entries. Listeners registered with {@code @TransactionalEventListener(fallbackExecution = true)}
+ * see it after the writing transaction commits.
+ */
+public class ProductChangedEvent {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED, STOCK_CHANGED
+    }
+
+    private final Long productId;
+    private final ChangeType type;
+    private final String category;
+    // Category before the change, so a product moving between categories invalidates both lists
+    private final String previousCategory;
+
+    public ProductChangedEvent(Long productId, ChangeType type, String category, String previousCategory) {
+        this.productId = productId;
+        this.type = type;
+        this.category = category;
+        this.previousCategory = previousCategory;
+    }
+
+    public static ProductChangedEvent stockChanged(Long productId) {
+        return new ProductChangedEvent(productId, ChangeType.STOCK_CHANGED, null, null);
+    }
+
+    public Long getProductId() { return productId; }
+
+    public ChangeType getType() { return type; }
+
+    public String getCategory() { return category; }
+
+    public String getPreviousCategory() { return previousCategory; }
+}
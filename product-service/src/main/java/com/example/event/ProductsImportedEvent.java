@@ -0,0 +1,23 @@
+package com.example.event;
+
+/**
+ * Published after a bulk import wrote rows with plain JDBC. No per-row {@link ProductChangedEvent}s are sent;
+ * in-memory views reload products with an id greater than {@link #getAfterId()} instead, the highest id
+ * before the import. That range can also hold rows other writers added meanwhile; reloading them is
+ * harmless, they are simply read twice. Rows outside it that commit late, and imports on other instances,
+ * are left to the views' periodic catch-up on {@code updated_at}, like any other change.
+ */
+public class ProductsImportedEvent {
+
+    private final long afterId;
+    private final long importedCount;
+
+    public ProductsImportedEvent(long afterId, long importedCount) {
+        this.afterId = afterId;
+        this.importedCount = importedCount;
+    }
+
+    public long getAfterId() { return afterId; }
+
+    public long getImportedCount() { return importedCount; }
+}
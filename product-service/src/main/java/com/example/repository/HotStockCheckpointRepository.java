@@ -0,0 +1,29 @@
+package com.example.repository;
+
+import com.example.entity.HotStockCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface HotStockCheckpointRepository extends JpaRepository<HotStockCheckpoint, Long> {
+
+    // Takes or renews the hot stock lease: succeeds for its current owner, or for anyone once it has run out
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE HotStockCheckpoint c SET c.ownerInstance = :owner, c.leaseUntil = :leaseUntil " +
+           "WHERE c.id = :id AND (c.ownerInstance IS NULL OR c.ownerInstance = :owner OR c.leaseUntil < :now)")
+    int claimLease(@Param("id") Long id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+                   @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE HotStockCheckpoint c SET c.ownerInstance = NULL, c.leaseUntil = NULL " +
+           "WHERE c.id = :id AND c.ownerInstance = :owner")
+    int releaseLease(@Param("id") Long id, @Param("owner") String owner);
+}
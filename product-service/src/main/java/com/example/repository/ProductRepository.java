@@ -1,11 +1,16 @@
 package com.example.repository;
 
 import com.example.entity.Product;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,9 +20,33 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByBrand(String brand);
     List<Product> findByNameContainingIgnoreCase(String name);
     
-    @Query("SELECT p FROM Product p WHERE p.stockQuantity > 0 AND p.status = 'ACTIVE'")
+    // Keyset scan by primary key, for loading the whole catalog in bounded batches
+    List<Product> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    
+    @Query("SELECT p.id FROM Product p")
+    List<Long> findAllIds();
+    
+    // Keyset scan by (updatedAt, id), for picking up changes made by other instances
+    @Query("SELECT p FROM Product p WHERE p.updatedAt > :updatedAt OR (p.updatedAt = :updatedAt AND p.id > :id) " +
+           "ORDER BY p.updatedAt ASC, p.id ASC")
+    List<Product> findChangedAfter(@Param("updatedAt") LocalDateTime updatedAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.status = com.example.entity.Product$ProductStatus.ACTIVE AND p.stockQuantity > 0")
     List<Product> findAvailableProducts();
     
+    // Same type as the DECIMAL(10,2) column, so the bound is compared exactly and the index stays usable
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
-    List<Product> findByPriceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
-}
\ No newline at end of file
+    List<Product> findByPriceRange(@Param("minPrice") BigDecimal minPrice, @Param("maxPrice") BigDecimal maxPrice);
+    
+    // Check and decrement in one statement, so concurrent checkouts can never take stock below zero
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity - :quantity, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.stockQuantity >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+    
+    @Modifying(clearAutomatically = true)
+    @Transactional
+    @Query("UPDATE Product p SET p.stockQuantity = p.stockQuantity + :quantity, p.updatedAt = :now WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+}
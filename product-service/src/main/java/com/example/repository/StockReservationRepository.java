@@ -0,0 +1,29 @@
+package com.example.repository;
+
+import com.example.entity.StockReservation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+    
+    // Compare-and-set on status: returns 1 for the single caller that wins the transition, 0 otherwise
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to, r.updatedAt = :now WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") StockReservation.ReservationStatus from,
+                   @Param("to") StockReservation.ReservationStatus to,
+                   @Param("now") LocalDateTime now);
+    
+    // Served by idx_stock_reservations_status_expires_at: touches only the expired rows
+    @Query("SELECT r.id FROM StockReservation r WHERE r.status = :status AND r.expiresAt < :now ORDER BY r.expiresAt")
+    List<Long> findIdsExpiredBefore(@Param("status") StockReservation.ReservationStatus status,
+                                    @Param("now") LocalDateTime now, Pageable pageable);
+}
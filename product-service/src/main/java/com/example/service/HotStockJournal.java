@@ -0,0 +1,154 @@
+package com.example.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only log of hot-SKU stock deltas ({@code sequence,productId,delta} per line).
+ * <p>
+ * {@link #append} returns only once the entry is on disk. Concurrent appenders share one
+ * {@code force()}: whoever forces first covers every entry written before it (group commit), so the
+ * fsync cost is paid per batch rather than per reservation. {@link #rotate} closes the current segment
+ * and hands over the deltas it contains for write-behind to MySQL.
+ */
+final class HotStockJournal implements Closeable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    // Lock order: forceLock, then writeLock
+    private final Object forceLock = new Object();
+    private final Object writeLock = new Object();
+
+    private FileChannel channel;
+    private Path currentSegment;
+    private long nextSequence;
+    private long lastWrittenSequence;
+    private volatile long durableSequence;
+    private final Map<Long, Integer> segmentDeltas = new HashMap<>();
+
+    HotStockJournal(Path directory, long lastSequence) throws IOException {
+        this.directory = directory;
+        this.nextSequence = lastSequence + 1;
+        this.lastWrittenSequence = lastSequence;
+        this.durableSequence = lastSequence;
+        Files.createDirectories(directory);
+        openSegment();
+    }
+
+    void append(long productId, int delta) throws IOException {
+        long sequence;
+        synchronized (writeLock) {
+            sequence = nextSequence++;
+            ByteBuffer line = StandardCharsets.UTF_8.encode(sequence + "," + productId + "," + delta + "\n");
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+            lastWrittenSequence = sequence;
+            segmentDeltas.merge(productId, delta, Integer::sum);
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Seals the current segment and starts a new one.
+     *
+     * @return the sealed segment and its net delta per product, or null if nothing was written since the
+     *         last rotation
+     */
+    Segment rotate() throws IOException {
+        synchronized (forceLock) {
+            synchronized (writeLock) {
+                if (segmentDeltas.isEmpty()) {
+                    return null;
+                }
+                channel.force(false);
+                durableSequence = lastWrittenSequence;
+                channel.close();
+                Segment sealed = new Segment(currentSegment, new HashMap<>(segmentDeltas), lastWrittenSequence);
+                segmentDeltas.clear();
+                openSegment();
+                return sealed;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (forceLock) {
+            synchronized (writeLock) {
+                channel.force(false);
+                channel.close();
+            }
+        }
+    }
+
+    private void awaitDurable(long sequence) throws IOException {
+        if (durableSequence >= sequence) {
+            return;
+        }
+        synchronized (forceLock) {
+            if (durableSequence >= sequence) {
+                return;
+            }
+            long upTo;
+            synchronized (writeLock) {
+                upTo = lastWrittenSequence;
+            }
+            channel.force(false);
+            durableSequence = upTo;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        currentSegment = directory.resolve(SEGMENT_PREFIX + nextSequence + SEGMENT_SUFFIX);
+        channel = FileChannel.open(currentSegment,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Reads every segment left in {@code directory} by a previous run. A torn last line from a crash
+     * mid-write is skipped: its append never returned, so its reservation was never acknowledged.
+     */
+    static Recovered recover(Path directory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return new Recovered(entries, segments);
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path segment : stream) {
+                segments.add(segment);
+                String content = Files.readString(segment, StandardCharsets.UTF_8);
+                // Only newline-terminated lines are complete; anything after the last newline is torn
+                String[] lines = content.split("\n", -1);
+                for (int i = 0; i < lines.length - 1; i++) {
+                    String[] fields = lines[i].split(",");
+                    if (fields.length == 3) {
+                        entries.add(new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]),
+                                Integer.parseInt(fields[2])));
+                    }
+                }
+            }
+        }
+        return new Recovered(entries, segments);
+    }
+
+    record Segment(Path file, Map<Long, Integer> deltas, long lastSequence) {}
+
+    record Entry(long sequence, long productId, int delta) {}
+
+    record Recovered(List<Entry> entries, List<Path> segments) {}
+}
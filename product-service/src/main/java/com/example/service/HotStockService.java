@@ -0,0 +1,326 @@
+package com.example.service;
+
+import com.example.common.exception.BusinessException;
+import com.example.config.HotStockProperties;
+import com.example.entity.HotStockCheckpoint;
+import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
+import com.example.repository.HotStockCheckpointRepository;
+import com.example.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional flash-sale mode for products listed in {@code products.hot-stock.product-ids}.
+ * <p>
+ * Their available stock lives in {@link StripedStockCounter}s, so reservations never take the
+ * {@code products} row lock. Every change is appended to a {@link HotStockJournal} before it is
+ * acknowledged. A scheduled flush applies the net deltas to MySQL together with a checkpoint in one
+ * transaction. At startup, journal entries newer than the checkpoint are replayed before the counters
+ * are loaded, so a crash loses no acknowledged decrement.
+ * <p>
+ * While a product is hot, {@code products.stock_quantity} trails the counter by up to one flush interval.
+ * <p>
+ * Only one instance may run the mode: journal sequences and counters are local to it, so a second instance
+ * would replay or skip the other's entries and sell the same stock again. The owner holds a lease on the
+ * checkpoint row, renewed by the flush; an instance that cannot take it fails to start. If the lease is
+ * ever lost, hot reservations are refused and the journal is left on disk instead of being flushed. Keep
+ * {@code journal-dir} with the instance: entries not yet flushed are replayed only where they were written.
+ * <p>
+ * The other instances must list the same {@code product-ids} with {@code enabled: false}; they refuse to
+ * take stock of those products through the row (see {@link #checkServedHere}), since the owner's counter
+ * would never see it and would sell it again. Stock they give back only leaves the counter short until the
+ * owner restarts.
+ */
+@Service
+public class HotStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(HotStockService.class);
+
+    @Autowired
+    private HotStockProperties properties;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private HotStockCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final String instanceId = UUID.randomUUID().toString();
+    private HotStockJournal journal;
+
+    // The counters are only served while the lease is known to be ours, with half of it kept as slack
+    private volatile long leaseRenewedAtNanos;
+    private volatile long leaseValidUntilNanos;
+
+    // Sealed segments whose deltas have not reached MySQL yet (a failed flush is retried next time)
+    private final List<HotStockJournal.Segment> unflushed = new ArrayList<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (properties.getLease().compareTo(properties.getFlushInterval().multipliedBy(4)) < 0) {
+            throw new IllegalStateException("products.hot-stock.lease must be at least 4 flush intervals");
+        }
+        acquireLease();
+        Path directory = Paths.get(properties.getJournalDir());
+        long lastSequence = recover(directory);
+        journal = new HotStockJournal(directory, lastSequence);
+
+        for (Long productId : properties.getProductIds()) {
+            Product product = productRepository.findById(productId).orElse(null);
+            if (product == null) {
+                logger.warn("Hot stock product {} does not exist, ignoring", productId);
+                continue;
+            }
+            int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+            counters.put(productId, new StripedStockCounter(stock, properties.getStripes()));
+        }
+        logger.info("Hot stock mode enabled for products {} ({} stripes each)", counters.keySet(), properties.getStripes());
+    }
+
+    public boolean isHot(Long productId) {
+        return journal != null && counters.containsKey(productId);
+    }
+
+    /**
+     * Call before taking or overwriting stock through the {@code products} row.
+     *
+     * @throws BusinessException if the product is hot but served by another instance
+     */
+    public void checkServedHere(Long productId) {
+        if (!isHot(productId) && properties.getProductIds().contains(productId)) {
+            throw new BusinessException("Stock of hot product " + productId + " is served by the hot stock instance only");
+        }
+    }
+
+    /**
+     * Takes stock from the in-memory counter and journals it. Inside a transaction the stock is given
+     * back automatically if that transaction rolls back (e.g. another line of the cart was short).
+     *
+     * @return false if there is not enough stock
+     */
+    public boolean tryReserve(Long productId, int quantity) {
+        if (System.nanoTime() - leaseValidUntilNanos > 0) {
+            throw new BusinessException("Unable to reserve stock for product: " + productId);
+        }
+        StripedStockCounter counter = counters.get(productId);
+        if (!counter.tryTake(quantity)) {
+            return false;
+        }
+        try {
+            journal.append(productId, -quantity);
+        } catch (IOException e) {
+            // The entry may still reach the journal; at worst MySQL ends up short, never oversold
+            counter.give(quantity);
+            logger.error("Failed to journal hot stock reservation for product {}", productId, e);
+            throw new BusinessException("Unable to reserve stock for product: " + productId);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        release(productId, quantity);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    public void release(Long productId, int quantity) {
+        try {
+            journal.append(productId, quantity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to journal hot stock release for product " + productId, e);
+        }
+        counters.get(productId).give(quantity);
+    }
+
+    /**
+     * Releases once the surrounding transaction commits, so a rolled-back release cannot hand the same
+     * stock back twice.
+     */
+    public void releaseAfterCommit(Long productId, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            release(productId, quantity);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                release(productId, quantity);
+            }
+        });
+    }
+
+    public int getAvailableStock(Long productId) {
+        return counters.get(productId).available();
+    }
+
+    @Scheduled(fixedDelayString = "#{@hotStockProperties.flushInterval.toMillis()}")
+    public void flush() {
+        if (journal == null) {
+            return;
+        }
+        synchronized (unflushed) {
+            try {
+                if (System.nanoTime() - leaseRenewedAtNanos > properties.getLease().toNanos() / 3 && !renewLease()) {
+                    logger.error("Hot stock lease was taken by another instance; refusing hot reservations and "
+                            + "keeping the journal in {} unflushed", properties.getJournalDir());
+                    return;
+                }
+                HotStockJournal.Segment sealed = journal.rotate();
+                if (sealed != null) {
+                    unflushed.add(sealed);
+                }
+                if (unflushed.isEmpty()) {
+                    return;
+                }
+                Map<Long, Integer> deltas = new HashMap<>();
+                long lastSequence = 0;
+                for (HotStockJournal.Segment segment : unflushed) {
+                    segment.deltas().forEach((productId, delta) -> deltas.merge(productId, delta, Integer::sum));
+                    lastSequence = Math.max(lastSequence, segment.lastSequence());
+                }
+                applyToDatabase(deltas, lastSequence);
+                for (HotStockJournal.Segment segment : unflushed) {
+                    Files.deleteIfExists(segment.file());
+                }
+                unflushed.clear();
+            } catch (Exception e) {
+                logger.error("Hot stock flush failed, will retry", e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (journal == null) {
+            return;
+        }
+        flush();
+        journal.close();
+        try {
+            checkpointRepository.releaseLease(HotStockCheckpoint.SINGLETON_ID, instanceId);
+        } catch (Exception e) {
+            logger.warn("Failed to release the hot stock lease, it runs out after {}", properties.getLease(), e);
+        }
+    }
+
+    private void acquireLease() {
+        if (!checkpointRepository.existsById(HotStockCheckpoint.SINGLETON_ID)) {
+            try {
+                checkpointRepository.save(new HotStockCheckpoint());
+            } catch (DataIntegrityViolationException e) {
+                // Created concurrently by another instance; the lease below decides who runs
+            }
+        }
+        if (!renewLease()) {
+            HotStockCheckpoint checkpoint = checkpointRepository.findById(HotStockCheckpoint.SINGLETON_ID).orElseThrow();
+            throw new IllegalStateException("Hot stock mode is already running on instance " + checkpoint.getOwnerInstance()
+                    + " (lease until " + checkpoint.getLeaseUntil() + "); only one product-service instance may enable "
+                    + "products.hot-stock");
+        }
+    }
+
+    private boolean renewLease() {
+        long started = System.nanoTime();
+        LocalDateTime now = LocalDateTime.now();
+        if (checkpointRepository.claimLease(HotStockCheckpoint.SINGLETON_ID, instanceId, now,
+                now.plus(properties.getLease())) == 0) {
+            leaseValidUntilNanos = started;
+            return false;
+        }
+        leaseRenewed(started);
+        return true;
+    }
+
+    private void leaseRenewed(long startedNanos) {
+        leaseRenewedAtNanos = startedNanos;
+        leaseValidUntilNanos = startedNanos + properties.getLease().toNanos() / 2;
+    }
+
+    private long recover(Path directory) throws IOException {
+        long checkpoint = checkpointRepository.findById(HotStockCheckpoint.SINGLETON_ID)
+                .map(HotStockCheckpoint::getLastSequence)
+                .orElse(0L);
+        HotStockJournal.Recovered recovered = HotStockJournal.recover(directory);
+
+        Map<Long, Integer> deltas = new HashMap<>();
+        long lastSequence = checkpoint;
+        for (HotStockJournal.Entry entry : recovered.entries()) {
+            if (entry.sequence() > checkpoint) {
+                deltas.merge(entry.productId(), entry.delta(), Integer::sum);
+            }
+            lastSequence = Math.max(lastSequence, entry.sequence());
+        }
+        if (!deltas.isEmpty()) {
+            applyToDatabase(deltas, lastSequence);
+            logger.info("Replayed hot stock journal up to sequence {} for products {}", lastSequence, deltas.keySet());
+        }
+        for (Path segment : recovered.segments()) {
+            Files.deleteIfExists(segment);
+        }
+        return lastSequence;
+    }
+
+    private void applyToDatabase(Map<Long, Integer> deltas, long lastSequence) {
+        long started = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // The checkpoint belongs to the lease holder; writing it without the lease would corrupt another's
+            if (checkpointRepository.claimLease(HotStockCheckpoint.SINGLETON_ID, instanceId, now,
+                    now.plus(properties.getLease())) == 0) {
+                throw new IllegalStateException("Hot stock lease is held by another instance");
+            }
+            // Ascending id, like every other multi-row stock update, so no lock-order inversion
+            deltas.entrySet().stream()
+                    .filter(delta -> delta.getValue() != 0)
+                    .sorted(Map.Entry.comparingByKey())
+                    .forEach(delta -> {
+                        productRepository.incrementStock(delta.getKey(), delta.getValue(), now);
+                        eventPublisher.publishEvent(ProductChangedEvent.stockChanged(delta.getKey()));
+                    });
+            HotStockCheckpoint checkpoint = checkpointRepository.findById(HotStockCheckpoint.SINGLETON_ID)
+                    .orElseThrow();
+            checkpoint.setLastSequence(lastSequence);
+            checkpoint.setUpdatedAt(now);
+            checkpointRepository.save(checkpoint);
+        });
+        leaseRenewed(started);
+    }
+}
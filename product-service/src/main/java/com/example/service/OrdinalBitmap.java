@@ -0,0 +1,104 @@
+package com.example.service;
+
+import java.util.Arrays;
+
+/**
+ * Growable bitmap over product ordinals. Unlike {@link java.util.BitSet} it can count the intersection
+ * with another bitmap word by word, without allocating the intersection first.
+ */
+final class OrdinalBitmap {
+
+    private long[] words;
+
+    OrdinalBitmap() {
+        this.words = new long[16];
+    }
+
+    private OrdinalBitmap(long[] words) {
+        this.words = words;
+    }
+
+    void set(int ordinal) {
+        int index = ordinal >>> 6;
+        if (index >= words.length) {
+            words = Arrays.copyOf(words, Math.max(index + 1, words.length * 2));
+        }
+        words[index] |= 1L << ordinal;
+    }
+
+    void clear(int ordinal) {
+        int index = ordinal >>> 6;
+        if (index < words.length) {
+            words[index] &= ~(1L << ordinal);
+        }
+    }
+
+    void set(int ordinal, boolean value) {
+        if (value) {
+            set(ordinal);
+        } else {
+            clear(ordinal);
+        }
+    }
+
+    OrdinalBitmap copy() {
+        return new OrdinalBitmap(words.clone());
+    }
+
+    void and(OrdinalBitmap other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            words[i] &= other.words[i];
+        }
+        Arrays.fill(words, common, words.length, 0L);
+    }
+
+    void or(OrdinalBitmap other) {
+        if (other.words.length > words.length) {
+            words = Arrays.copyOf(words, other.words.length);
+        }
+        for (int i = 0; i < other.words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /** Size of the intersection with {@code other}, one popcount per 64 ordinals. */
+    int andCardinality(OrdinalBitmap other) {
+        int common = Math.min(words.length, other.words.length);
+        int count = 0;
+        for (int i = 0; i < common; i++) {
+            count += Long.bitCount(words[i] & other.words[i]);
+        }
+        return count;
+    }
+
+    int wordCount() {
+        return words.length;
+    }
+
+    /** @return the first set ordinal at or after {@code from}, or -1 */
+    int nextSetBit(int from) {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+}
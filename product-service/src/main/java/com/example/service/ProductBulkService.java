@@ -0,0 +1,404 @@
+package com.example.service;
+
+import com.example.common.exception.BusinessException;
+import com.example.dto.ProductImportResult;
+import com.example.dto.ProductImportRow;
+import com.example.entity.Product;
+import com.example.event.ProductsImportedEvent;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming bulk import and export of the catalog.
+ * <p>
+ * Import reads the upload record by record (CSV or NDJSON) and writes valid rows with plain JDBC batch
+ * INSERTs, {@code products.import.batch-size} rows per transaction. Hibernate is bypassed on purpose:
+ * with IDENTITY ids it cannot batch inserts, it needs the generated key of every row. Here nothing needs
+ * the new ids, and in-memory views pick the rows up from one {@link ProductsImportedEvent}. Only one
+ * batch is held in memory at a time, whatever the file size.
+ * <p>
+ * Export streams {@code SELECT ... ORDER BY id} straight to the response, one row at a time.
+ */
+@Service
+public class ProductBulkService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductBulkService.class);
+
+    private static final String INSERT_SQL = "INSERT INTO products " +
+            "(name, description, price, stock_quantity, category, brand, image_url, status, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String EXPORT_SQL = "SELECT id, name, description, price, stock_quantity, category, brand, " +
+            "image_url, status FROM products ORDER BY id";
+    private static final String[] EXPORT_COLUMNS =
+            {"id", "name", "description", "price", "stockQuantity", "category", "brand", "imageUrl", "status"};
+
+    private static final int MAX_TEXT_LENGTH = 255;
+    // products.price is DECIMAL(10, 2)
+    private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+
+    public enum Format {
+        CSV, NDJSON;
+
+        /**
+         * The {@code format} parameter wins; otherwise the request's Content-Type decides.
+         */
+        public static Format resolve(String format, String contentType) {
+            String hint = format != null ? format : contentType;
+            if (hint != null) {
+                String lower = hint.toLowerCase(Locale.ROOT);
+                if (lower.contains("csv")) {
+                    return CSV;
+                }
+                if (lower.contains("ndjson") || lower.contains("jsonl")) {
+                    return NDJSON;
+                }
+            }
+            throw new BusinessException("Unsupported format, use format=csv or format=ndjson");
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${products.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${products.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the whole result
+    @Value("${products.export.fetch-size:-2147483648}")
+    private int exportFetchSize;
+
+    private JdbcTemplate exportJdbcTemplate;
+    private ObjectReader rowReader;
+
+    @PostConstruct
+    void init() {
+        // Lets an NDJSON export (with ids) be imported again as-is
+        rowReader = objectMapper.readerFor(ProductImportRow.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        exportJdbcTemplate = new JdbcTemplate(dataSource);
+        exportJdbcTemplate.setFetchSize(exportFetchSize);
+    }
+
+    public ProductImportResult importProducts(InputStream input, Format format) {
+        long started = System.currentTimeMillis();
+        Long maxIdBefore = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM products", Long.class);
+        ImportRun run = new ImportRun();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                readCsv(reader, run);
+            } else {
+                readNdjson(reader, run);
+            }
+        } catch (EOFException e) {
+            run.unreadable(run.lastLine, e.getMessage());
+        } catch (IOException e) {
+            run.unreadable(run.lastLine, "Upload could not be read: " + e.getMessage());
+        }
+        run.flush();
+
+        ProductImportResult result = run.result;
+        if (result.getImported() > 0) {
+            eventPublisher.publishEvent(new ProductsImportedEvent(maxIdBefore != null ? maxIdBefore : 0, result.getImported()));
+        }
+        logger.info("Product import ({}): {} rows, {} imported, {} failed in {} ms", format,
+                result.getTotalRows(), result.getImported(), result.getFailed(), System.currentTimeMillis() - started);
+        return result;
+    }
+
+    public void exportProducts(OutputStream output, Format format) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        JsonGenerator ndjson = format == Format.NDJSON ? lineGenerator(writer) : null;
+        if (format == Format.CSV) {
+            writer.write(String.join(",", EXPORT_COLUMNS));
+            writer.write('\n');
+        }
+        try {
+            exportJdbcTemplate.query(EXPORT_SQL, (RowCallbackHandler) rs -> {
+                try {
+                    if (ndjson != null) {
+                        writeJson(ndjson, rs);
+                        ndjson.flush();
+                    } else {
+                        writeCsv(writer, rs);
+                    }
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private JsonGenerator lineGenerator(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        // Rows are separated by the newline written after each one, not Jackson's default space
+        generator.setRootValueSeparator(null);
+        // flush() after each row only hands the row to the buffered writer
+        generator.disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        return generator;
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String column = header.get(i).toLowerCase(Locale.ROOT).replaceAll("[^a-z]", "");
+            columns.putIfAbsent(column.equals("stock") ? "stockquantity" : column, i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new BusinessException("CSV header must contain at least the name and price columns");
+        }
+
+        List<String> fields;
+        while ((fields = csv.next()) != null) {
+            run.lastLine = csv.recordLine();
+            if (fields.size() == 1 && fields.get(0).isBlank()) {
+                continue;
+            }
+            ProductImportRow row = new ProductImportRow();
+            row.setName(field(fields, columns, "name"));
+            row.setDescription(field(fields, columns, "description"));
+            row.setCategory(field(fields, columns, "category"));
+            row.setBrand(field(fields, columns, "brand"));
+            row.setImageUrl(field(fields, columns, "imageurl"));
+            row.setStatus(field(fields, columns, "status"));
+            try {
+                String price = field(fields, columns, "price");
+                row.setPrice(price != null ? new BigDecimal(price) : null);
+                String stock = field(fields, columns, "stockquantity");
+                row.setStockQuantity(stock != null ? Integer.valueOf(stock) : null);
+            } catch (NumberFormatException e) {
+                run.unreadable(run.lastLine, "price and stockQuantity must be numbers");
+                continue;
+            }
+            run.add(run.lastLine, row);
+        }
+    }
+
+    private void readNdjson(BufferedReader reader, ImportRun run) throws IOException {
+        String text;
+        while ((text = reader.readLine()) != null) {
+            run.lastLine++;
+            if (text.isBlank()) {
+                continue;
+            }
+            ProductImportRow row;
+            try {
+                row = rowReader.readValue(text);
+            } catch (JsonProcessingException e) {
+                run.unreadable(run.lastLine, "Invalid JSON: " + e.getOriginalMessage());
+                continue;
+            }
+            run.add(run.lastLine, row);
+        }
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * @return why the row cannot be imported, or null if it is valid
+     */
+    private static String validate(ProductImportRow row) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            return "name is required";
+        }
+        if (row.getPrice() == null) {
+            return "price is required";
+        }
+        if (row.getPrice().signum() < 0 || row.getPrice().compareTo(MAX_PRICE) > 0) {
+            return "price must be between 0 and " + MAX_PRICE;
+        }
+        if (row.getPrice().stripTrailingZeros().scale() > 2) {
+            return "price must have at most 2 decimals";
+        }
+        if (row.getStockQuantity() != null && row.getStockQuantity() < 0) {
+            return "stockQuantity must not be negative";
+        }
+        if (tooLong(row.getName()) || tooLong(row.getCategory()) || tooLong(row.getBrand()) || tooLong(row.getImageUrl())) {
+            return "name, category, brand and imageUrl must be at most " + MAX_TEXT_LENGTH + " characters";
+        }
+        if (row.getStatus() != null) {
+            try {
+                Product.ProductStatus.valueOf(row.getStatus().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                return "Unknown status: " + row.getStatus();
+            }
+        }
+        return null;
+    }
+
+    private static boolean tooLong(String value) {
+        return value != null && value.length() > MAX_TEXT_LENGTH;
+    }
+
+    private static void writeCsv(Writer writer, ResultSet rs) throws SQLException, IOException {
+        for (int i = 1; i <= EXPORT_COLUMNS.length; i++) {
+            if (i > 1) {
+                writer.write(',');
+            }
+            String value = rs.getString(i);
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+    }
+
+    private static void writeJson(JsonGenerator json, ResultSet rs) throws SQLException, IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", rs.getLong(1));
+        json.writeStringField("name", rs.getString(2));
+        json.writeStringField("description", rs.getString(3));
+        json.writeNumberField("price", rs.getBigDecimal(4));
+        int stock = rs.getInt(5);
+        if (rs.wasNull()) {
+            json.writeNullField("stockQuantity");
+        } else {
+            json.writeNumberField("stockQuantity", stock);
+        }
+        json.writeStringField("category", rs.getString(6));
+        json.writeStringField("brand", rs.getString(7));
+        json.writeStringField("imageUrl", rs.getString(8));
+        json.writeStringField("status", rs.getString(9));
+        json.writeEndObject();
+    }
+
+    /** State of one import: the pending batch and the running result. */
+    private final class ImportRun {
+        private final ProductImportResult result = new ProductImportResult();
+        private final List<Long> pendingLines = new ArrayList<>();
+        private final List<Object[]> pendingRows = new ArrayList<>();
+        private final LocalDateTime now = LocalDateTime.now();
+        private long lastLine;
+
+        void add(long line, ProductImportRow row) {
+            result.setTotalRows(result.getTotalRows() + 1);
+            String error = validate(row);
+            if (error != null) {
+                fail(line, error);
+                return;
+            }
+            String status = row.getStatus() != null
+                    ? row.getStatus().toUpperCase(Locale.ROOT)
+                    : Product.ProductStatus.ACTIVE.name();
+            pendingLines.add(line);
+            pendingRows.add(new Object[]{
+                    row.getName().trim(), row.getDescription(), row.getPrice(),
+                    row.getStockQuantity() != null ? row.getStockQuantity() : 0,
+                    row.getCategory(), row.getBrand(), row.getImageUrl(), status, now, now});
+            if (pendingRows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void unreadable(long line, String message) {
+            result.setTotalRows(result.getTotalRows() + 1);
+            fail(line, message);
+        }
+
+        void flush() {
+            if (pendingRows.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, pendingRows));
+                result.setImported(result.getImported() + pendingRows.size());
+            } catch (DataAccessException e) {
+                // The batch rolled back as a whole; retry row by row to report exactly which rows fail
+                for (int i = 0; i < pendingRows.size(); i++) {
+                    try {
+                        jdbcTemplate.update(INSERT_SQL, pendingRows.get(i));
+                        result.setImported(result.getImported() + 1);
+                    } catch (DataAccessException rowError) {
+                        fail(pendingLines.get(i), NestedExceptionUtils.getMostSpecificCause(rowError).getMessage());
+                    }
+                }
+            }
+            pendingLines.clear();
+            pendingRows.clear();
+        }
+
+        private void fail(long line, String message) {
+            result.setFailed(result.getFailed() + 1);
+            if (result.getErrors().size() < maxReportedErrors) {
+                result.getErrors().add(new ProductImportResult.RowError(line, message));
+            } else {
+                result.setErrorsTruncated(true);
+            }
+        }
+    }
+}
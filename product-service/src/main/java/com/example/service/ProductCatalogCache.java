@@ -0,0 +1,63 @@
+package com.example.service;
+
+import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
+import com.example.repository.ProductRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Read-through cache of full products for the detail endpoint. List endpoints are served from
+ * {@link ProductCatalogSnapshot} instead.
+ * <p>
+ * Local writes drop the affected entry after commit (see {@link #onProductChanged}). Entries never outlive
+ * {@code products.cache.stock-max-staleness}, which bounds how stale stock can be even for writes made by
+ * other instances.
+ */
+@Service
+public class ProductCatalogCache {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${products.cache.max-products:100000}")
+    private long maxProducts;
+
+    @Value("${products.cache.stock-max-staleness:5s}")
+    private Duration stockMaxStaleness;
+
+    private Cache<Long, Product> productsById;
+
+    @PostConstruct
+    void init() {
+        productsById = Caffeine.newBuilder()
+                .maximumSize(maxProducts)
+                .expireAfterWrite(stockMaxStaleness)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, productsById, "product.catalog.byId");
+    }
+
+    public Optional<Product> getProduct(Long id) {
+        // A missing product is not cached (Caffeine drops null values), so creating it is seen at once
+        return Optional.ofNullable(productsById.get(id, key -> productRepository.findById(key).orElse(null)));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productsById.invalidate(event.getProductId());
+    }
+}
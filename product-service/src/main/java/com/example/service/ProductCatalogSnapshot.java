@@ -0,0 +1,373 @@
+package com.example.service;
+
+import com.example.dto.ProductSummary;
+import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
+import com.example.event.ProductsImportedEvent;
+import com.example.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Read-only, column-per-field copy of the catalog for list endpoints.
+ * <p>
+ * One slot per product ordinal: price as {@code long} cents, stock as {@code int}, category and brand as
+ * ids into a shared dictionary, status as a byte. Descriptions and timestamps are not kept. A list
+ * response is built straight from these arrays into {@link ProductSummary}s, so listing never loads
+ * entities, BigDecimals or LocalDateTimes per row.
+ * <p>
+ * Built once the application is ready, updated per product from {@link ProductChangedEvent}s, and every
+ * {@code products.snapshot.catch-up-interval-ms} it re-reads rows whose {@code updated_at} moved, so stock
+ * written by other instances shows up within that interval. Rows deleted by other instances are dropped by
+ * a slower id sweep ({@code products.snapshot.prune-interval-ms}).
+ */
+@Service
+public class ProductCatalogSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCatalogSnapshot.class);
+
+    private static final long NO_PRICE = Long.MIN_VALUE;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final Product.ProductStatus[] STATUSES = Product.ProductStatus.values();
+    // Re-read this far behind the watermark, for transactions that committed after a later one
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofSeconds(2);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${products.snapshot.build-batch-size:5000}")
+    private int batchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private final OrdinalBitmap live = new OrdinalBitmap();
+    private final Dictionary dictionary = new Dictionary();
+    private int nextOrdinal;
+
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private long[] priceCents = new long[1024];
+    private int[] stock = new int[1024];
+    private int[] categoryIds = new int[1024];
+    private int[] brandIds = new int[1024];
+    private String[] imageUrls = new String[1024];
+    private byte[] statuses = new byte[1024];
+    // updated_at as epoch nanos (UTC), to drop a reload that raced with a newer one
+    private long[] versions = new long[1024];
+
+    private volatile boolean ready;
+    private LocalDateTime watermark = EPOCH;
+    private final Set<Long> deletedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long started = System.currentTimeMillis();
+        load(0, true);
+        ready = true;
+        deletedDuringBuild.clear();
+        logger.info("Product catalog snapshot built: {} products in {} ms",
+                ordinalByProductId.size(), System.currentTimeMillis() - started);
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (ready) {
+            load(event.getAfterId(), false);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private void load(long afterId, boolean initialBuild) {
+        long lastId = afterId;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, batchSize));
+            apply(batch, initialBuild);
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Long productId = event.getProductId();
+        Product product = event.getType() == ProductChangedEvent.ChangeType.DELETED
+                ? null
+                : productRepository.findById(productId).orElse(null);
+        if (product != null) {
+            apply(List.of(product), false);
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                deletedDuringBuild.add(productId);
+            }
+            remove(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.snapshot.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        if (!ready) {
+            return;
+        }
+        LocalDateTime since;
+        lock.readLock().lock();
+        try {
+            since = watermark.minus(CATCH_UP_OVERLAP);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findChangedAfter(since, lastId, PageRequest.of(0, batchSize));
+            apply(batch, false);
+            if (!batch.isEmpty()) {
+                Product last = batch.get(batch.size() - 1);
+                since = last.getUpdatedAt();
+                lastId = last.getId();
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${products.snapshot.prune-interval-ms:600000}")
+    public void pruneDeleted() {
+        if (!ready) {
+            return;
+        }
+        int knownBefore;
+        lock.readLock().lock();
+        try {
+            knownBefore = nextOrdinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<Long> existing = new HashSet<>(productRepository.findAllIds());
+        lock.writeLock().lock();
+        try {
+            // Products first seen after the query started may be missing from it; only judge older ones
+            List<Long> gone = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : ordinalByProductId.entrySet()) {
+                if (entry.getValue() < knownBefore && !existing.contains(entry.getKey())) {
+                    gone.add(entry.getKey());
+                }
+            }
+            gone.forEach(this::remove);
+            if (!gone.isEmpty()) {
+                logger.info("Dropped {} deleted products from the catalog snapshot", gone.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSummary> getAll() {
+        lock.readLock().lock();
+        try {
+            List<ProductSummary> result = new ArrayList<>(ordinalByProductId.size());
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                result.add(summary(ordinal));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductSummary> getAvailable() {
+        byte activeStatus = (byte) Product.ProductStatus.ACTIVE.ordinal();
+        lock.readLock().lock();
+        try {
+            List<ProductSummary> result = new ArrayList<>();
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                if (stock[ordinal] > 0 && statuses[ordinal] == activeStatus) {
+                    result.add(summary(ordinal));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<ProductSummary> getByCategory(String category) {
+        lock.readLock().lock();
+        try {
+            int categoryId = dictionary.find(category);
+            List<ProductSummary> result = new ArrayList<>();
+            if (categoryId < 0) {
+                return result;
+            }
+            for (int ordinal = live.nextSetBit(0); ordinal >= 0; ordinal = live.nextSetBit(ordinal + 1)) {
+                if (categoryIds[ordinal] == categoryId) {
+                    result.add(summary(ordinal));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Summaries for the given ids in the same order; ids that are not in the snapshot are skipped.
+     */
+    public List<ProductSummary> getSummaries(List<Long> productIds) {
+        lock.readLock().lock();
+        try {
+            List<ProductSummary> result = new ArrayList<>(productIds.size());
+            for (Long productId : productIds) {
+                Integer ordinal = ordinalByProductId.get(productId);
+                if (ordinal != null) {
+                    result.add(summary(ordinal));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static ProductSummary summaryOf(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getPrice(), product.getStockQuantity(),
+                product.getCategory(), product.getBrand(), product.getImageUrl(),
+                product.getStatus() != null ? product.getStatus().name() : null);
+    }
+
+    private ProductSummary summary(int ordinal) {
+        long cents = priceCents[ordinal];
+        byte status = statuses[ordinal];
+        return new ProductSummary(
+                ids[ordinal],
+                names[ordinal],
+                cents != NO_PRICE ? BigDecimal.valueOf(cents, 2) : null,
+                stock[ordinal],
+                dictionary.get(categoryIds[ordinal]),
+                dictionary.get(brandIds[ordinal]),
+                imageUrls[ordinal],
+                status >= 0 ? STATUSES[status].name() : null);
+    }
+
+    private void apply(List<Product> products, boolean initialBuild) {
+        lock.writeLock().lock();
+        try {
+            for (Product product : products) {
+                if (initialBuild && (ordinalByProductId.containsKey(product.getId())
+                        || deletedDuringBuild.contains(product.getId()))) {
+                    continue;
+                }
+                put(product);
+                if (product.getUpdatedAt() != null && product.getUpdatedAt().isAfter(watermark)) {
+                    watermark = product.getUpdatedAt();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void put(Product product) {
+        long version = product.getUpdatedAt() != null
+                ? product.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + product.getUpdatedAt().getNano()
+                : Long.MIN_VALUE;
+        Integer ordinal = ordinalByProductId.get(product.getId());
+        if (ordinal == null) {
+            ordinal = nextOrdinal++;
+            if (ordinal == ids.length) {
+                grow(ordinal * 2);
+            }
+            ordinalByProductId.put(product.getId(), ordinal);
+        } else if (version < versions[ordinal]) {
+            return;
+        }
+        ids[ordinal] = product.getId();
+        names[ordinal] = product.getName();
+        priceCents[ordinal] = product.getPrice() != null
+                ? product.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact()
+                : NO_PRICE;
+        stock[ordinal] = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        categoryIds[ordinal] = dictionary.idOf(product.getCategory());
+        brandIds[ordinal] = dictionary.idOf(product.getBrand());
+        imageUrls[ordinal] = product.getImageUrl();
+        statuses[ordinal] = product.getStatus() != null ? (byte) product.getStatus().ordinal() : -1;
+        versions[ordinal] = version;
+        live.set(ordinal);
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinalByProductId.remove(productId);
+        if (ordinal != null) {
+            live.clear(ordinal);
+            names[ordinal] = null;
+            imageUrls[ordinal] = null;
+        }
+    }
+
+    private void grow(int capacity) {
+        ids = Arrays.copyOf(ids, capacity);
+        names = Arrays.copyOf(names, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        stock = Arrays.copyOf(stock, capacity);
+        categoryIds = Arrays.copyOf(categoryIds, capacity);
+        brandIds = Arrays.copyOf(brandIds, capacity);
+        imageUrls = Arrays.copyOf(imageUrls, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        versions = Arrays.copyOf(versions, capacity);
+    }
+
+    /** Category and brand strings, each stored once and referenced by int id (-1 for null). */
+    private static final class Dictionary {
+        private final Map<String, Integer> idsByValue = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+
+        int idOf(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return idsByValue.computeIfAbsent(value, v -> {
+                values.add(v);
+                return values.size() - 1;
+            });
+        }
+
+        int find(String value) {
+            Integer id = value != null ? idsByValue.get(value) : null;
+            return id != null ? id : -1;
+        }
+
+        String get(int id) {
+            return id >= 0 ? values.get(id) : null;
+        }
+    }
+}
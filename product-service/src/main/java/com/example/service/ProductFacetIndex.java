@@ -0,0 +1,432 @@
+package com.example.service;
+
+import com.example.dto.ProductBrowseCriteria;
+import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
+import com.example.event.ProductsImportedEvent;
+import com.example.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Facet bitmaps behind {@code GET /api/products/browse}.
+ * <p>
+ * Each product gets an int ordinal, and every facet value (a category, a brand, a price bucket, in or
+ * out of stock) owns an {@link OrdinalBitmap} of the ordinals that have it. A filter is the OR of the
+ * selected values' bitmaps, and the result is the AND of all filters with the set of ACTIVE products.
+ * Counts for a facet are taken over the other facets' filters only, so a sidebar still shows what
+ * choosing another value of the same facet would give. A facet is counted either by popcount of the
+ * mask AND each value's bitmap, or by walking the mask once and reading each ordinal's
+ * dictionary-encoded value, whichever touches less memory (few values vs. a sparse mask).
+ * <p>
+ * Ordinals are handed out as products are first seen (in id order during the build, creation order
+ * after that) and never reused, so pages come out in a stable order as runs of set bits. The bitmaps are
+ * built once the application is ready and then kept current from {@link ProductChangedEvent}s, one
+ * product at a time. Writes made by other instances are caught up with as in {@link ProductCatalogSnapshot}:
+ * rows whose {@code updated_at} moved every {@code products.browse.catch-up-interval-ms}, deleted rows every
+ * {@code prune-interval-ms}.
+ */
+@Service
+public class ProductFacetIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndex.class);
+
+    public static final String CATEGORY = "category";
+    public static final String BRAND = "brand";
+    public static final String PRICE = "price";
+    public static final String AVAILABILITY = "availability";
+
+    public static final String IN_STOCK = "in_stock";
+    public static final String OUT_OF_STOCK = "out_of_stock";
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Re-read this far behind the watermark, for transactions that committed after a later one
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofSeconds(2);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${products.browse.enabled:true}")
+    private boolean enabled;
+
+    @Value("${products.browse.build-batch-size:5000}")
+    private int buildBatchSize;
+
+    // Upper bounds (exclusive) of the price buckets; anything above the last one goes into "<last>+"
+    @Value("${products.browse.price-buckets:50,100,200,500,1000}")
+    private BigDecimal[] priceBuckets;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private long[] productIdOf = new long[1024];
+    private LocalDateTime[] updatedAtOf = new LocalDateTime[1024];
+    private int nextOrdinal;
+    private final OrdinalBitmap active = new OrdinalBitmap();
+
+    private final Facet categories = new Facet(true);
+    private final Facet brands = new Facet(true);
+    private final Facet prices = new Facet(false);
+    private final Facet availability = new Facet(false);
+    private String[] priceLabels;
+
+    private volatile boolean ready;
+    private LocalDateTime watermark = EPOCH;
+    // Products deleted while the initial build runs, so a batch read before the delete cannot bring them back
+    private final Set<Long> deletedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        Arrays.sort(priceBuckets);
+        priceLabels = new String[priceBuckets.length + 1];
+        for (int i = 0; i < priceBuckets.length; i++) {
+            String lower = i == 0 ? "0" : priceBuckets[i - 1].toPlainString();
+            priceLabels[i] = lower + "-" + priceBuckets[i].toPlainString();
+        }
+        priceLabels[priceBuckets.length] = priceBuckets[priceBuckets.length - 1].toPlainString() + "+";
+        // Bucket and availability values are listed in their natural order, not by count
+        for (String label : priceLabels) {
+            prices.valueId(label);
+        }
+        availability.valueId(IN_STOCK);
+        availability.valueId(OUT_OF_STOCK);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        load(0, true);
+        ready = true;
+        deletedDuringBuild.clear();
+        logger.info("Product facet index built: {} products in {} ms",
+                ordinalByProductId.size(), System.currentTimeMillis() - started);
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (enabled && ready) {
+            load(event.getAfterId(), false);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexes every product with an id greater than {@code afterId}, in id batches. The initial build
+     * skips products an event has already indexed, since those are at least as fresh as the batch.
+     */
+    private void load(long afterId, boolean initialBuild) {
+        long lastId = afterId;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, buildBatchSize));
+            lock.writeLock().lock();
+            try {
+                for (Product product : batch) {
+                    if (!initialBuild || (!ordinalByProductId.containsKey(product.getId())
+                            && !deletedDuringBuild.contains(product.getId()))) {
+                        index(product);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == buildBatchSize);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long productId = event.getProductId();
+        Product product = event.getType() == ProductChangedEvent.ChangeType.DELETED
+                ? null
+                : productRepository.findById(productId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            if (product == null) {
+                if (!ready) {
+                    deletedDuringBuild.add(productId);
+                }
+                remove(productId);
+            } else {
+                index(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.browse.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        if (!enabled || !ready) {
+            return;
+        }
+        LocalDateTime since;
+        lock.readLock().lock();
+        try {
+            since = watermark.minus(CATCH_UP_OVERLAP);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findChangedAfter(since, lastId, PageRequest.of(0, buildBatchSize));
+            lock.writeLock().lock();
+            try {
+                batch.forEach(this::index);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                Product last = batch.get(batch.size() - 1);
+                since = last.getUpdatedAt();
+                lastId = last.getId();
+            }
+        } while (batch.size() == buildBatchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${products.browse.prune-interval-ms:600000}")
+    public void pruneDeleted() {
+        if (!enabled || !ready) {
+            return;
+        }
+        int knownBefore;
+        lock.readLock().lock();
+        try {
+            knownBefore = nextOrdinal;
+        } finally {
+            lock.readLock().unlock();
+        }
+        Set<Long> existing = new HashSet<>(productRepository.findAllIds());
+        lock.writeLock().lock();
+        try {
+            // Products first seen after the query started may be missing from it; only judge older ones
+            List<Long> gone = new ArrayList<>();
+            for (Map.Entry<Long, Integer> entry : ordinalByProductId.entrySet()) {
+                if (entry.getValue() < knownBefore && !existing.contains(entry.getKey())) {
+                    gone.add(entry.getKey());
+                }
+            }
+            gone.forEach(this::remove);
+            if (!gone.isEmpty()) {
+                logger.info("Dropped {} deleted products from the facet index", gone.size());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public BrowseResult browse(ProductBrowseCriteria criteria, int page, int size) {
+        lock.readLock().lock();
+        try {
+            OrdinalBitmap byCategory = categories.filter(criteria.getCategories());
+            OrdinalBitmap byBrand = brands.filter(criteria.getBrands());
+            OrdinalBitmap byPrice = prices.filter(criteria.getPriceRanges());
+            OrdinalBitmap byAvailability = availability.filter(criteria.getAvailability());
+
+            Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+            facets.put(CATEGORY, categories.count(intersect(byBrand, byPrice, byAvailability)));
+            facets.put(BRAND, brands.count(intersect(byCategory, byPrice, byAvailability)));
+            facets.put(PRICE, prices.count(intersect(byCategory, byBrand, byAvailability)));
+            facets.put(AVAILABILITY, availability.count(intersect(byCategory, byBrand, byPrice)));
+
+            OrdinalBitmap matches = intersect(byCategory, byBrand, byPrice, byAvailability);
+            List<Long> productIds = new ArrayList<>(size);
+            long skip = (long) page * size;
+            for (int ordinal = matches.nextSetBit(0); ordinal >= 0 && productIds.size() < size;
+                 ordinal = matches.nextSetBit(ordinal + 1)) {
+                if (skip > 0) {
+                    skip--;
+                } else {
+                    productIds.add(productIdOf[ordinal]);
+                }
+            }
+            return new BrowseResult(productIds, matches.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private OrdinalBitmap intersect(OrdinalBitmap... filters) {
+        OrdinalBitmap result = active.copy();
+        for (OrdinalBitmap filter : filters) {
+            if (filter != null) {
+                result.and(filter);
+            }
+        }
+        return result;
+    }
+
+    private void index(Product product) {
+        if (product.getUpdatedAt() != null && product.getUpdatedAt().isAfter(watermark)) {
+            watermark = product.getUpdatedAt();
+        }
+        Integer ordinal = ordinalByProductId.get(product.getId());
+        if (ordinal == null) {
+            ordinal = nextOrdinal++;
+            if (ordinal == productIdOf.length) {
+                productIdOf = Arrays.copyOf(productIdOf, ordinal * 2);
+                updatedAtOf = Arrays.copyOf(updatedAtOf, ordinal * 2);
+            }
+            ordinalByProductId.put(product.getId(), ordinal);
+            productIdOf[ordinal] = product.getId();
+        } else if (updatedAtOf[ordinal] != null && product.getUpdatedAt() != null
+                && product.getUpdatedAt().isBefore(updatedAtOf[ordinal])) {
+            // Two events for the same product raced; keep the newer state
+            return;
+        }
+        updatedAtOf[ordinal] = product.getUpdatedAt();
+        active.set(ordinal, product.getStatus() == Product.ProductStatus.ACTIVE);
+        categories.assign(ordinal, product.getCategory());
+        brands.assign(ordinal, product.getBrand());
+        prices.assign(ordinal, priceLabel(product.getPrice()));
+        int stock = product.getStockQuantity() != null ? product.getStockQuantity() : 0;
+        availability.assign(ordinal, stock > 0 ? IN_STOCK : OUT_OF_STOCK);
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinalByProductId.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        active.clear(ordinal);
+        categories.assign(ordinal, null);
+        brands.assign(ordinal, null);
+        prices.assign(ordinal, null);
+        availability.assign(ordinal, null);
+    }
+
+    private String priceLabel(BigDecimal price) {
+        if (price == null) {
+            return null;
+        }
+        for (int i = 0; i < priceBuckets.length; i++) {
+            if (price.compareTo(priceBuckets[i]) < 0) {
+                return priceLabels[i];
+            }
+        }
+        return priceLabels[priceBuckets.length];
+    }
+
+    public record BrowseResult(List<Long> productIds, long totalElements, Map<String, Map<String, Long>> facets) {}
+
+    /** One facet: a dictionary of values, a bitmap per value and the value id of every ordinal. */
+    private static final class Facet {
+        private final boolean sortByCount;
+        private final Map<String, Integer> idsByValue = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<OrdinalBitmap> bitmaps = new ArrayList<>();
+        private int[] valueOf = new int[0];
+
+        Facet(boolean sortByCount) {
+            this.sortByCount = sortByCount;
+        }
+
+        int valueId(String value) {
+            return idsByValue.computeIfAbsent(value, v -> {
+                values.add(v);
+                bitmaps.add(new OrdinalBitmap());
+                return values.size() - 1;
+            });
+        }
+
+        void assign(int ordinal, String value) {
+            if (ordinal >= valueOf.length) {
+                int oldLength = valueOf.length;
+                valueOf = Arrays.copyOf(valueOf, Math.max(1024, ordinal * 2));
+                Arrays.fill(valueOf, oldLength, valueOf.length, -1);
+            }
+            int current = valueOf[ordinal];
+            int next = value != null ? valueId(value) : -1;
+            if (current == next) {
+                return;
+            }
+            if (current >= 0) {
+                bitmaps.get(current).clear(ordinal);
+            }
+            if (next >= 0) {
+                bitmaps.get(next).set(ordinal);
+            }
+            valueOf[ordinal] = next;
+        }
+
+        /** OR of the selected values' bitmaps, or null when nothing is selected. */
+        OrdinalBitmap filter(List<String> selected) {
+            if (selected == null || selected.isEmpty()) {
+                return null;
+            }
+            OrdinalBitmap result = new OrdinalBitmap();
+            for (String value : selected) {
+                Integer id = idsByValue.get(value);
+                if (id != null) {
+                    result.or(bitmaps.get(id));
+                }
+            }
+            return result;
+        }
+
+        Map<String, Long> count(OrdinalBitmap mask) {
+            long[] counts = new long[values.size()];
+            if ((long) values.size() * mask.wordCount() < mask.cardinality()) {
+                for (int id = 0; id < counts.length; id++) {
+                    counts[id] = mask.andCardinality(bitmaps.get(id));
+                }
+            } else {
+                for (int ordinal = mask.nextSetBit(0); ordinal >= 0; ordinal = mask.nextSetBit(ordinal + 1)) {
+                    int id = valueOf[ordinal];
+                    if (id >= 0) {
+                        counts[id]++;
+                    }
+                }
+            }
+            List<Integer> ids = new ArrayList<>();
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    ids.add(id);
+                }
+            }
+            if (sortByCount) {
+                ids.sort(Comparator.<Integer>comparingLong(id -> -counts[id]).thenComparing(values::get));
+            }
+            Map<String, Long> result = new LinkedHashMap<>();
+            for (int id : ids) {
+                result.put(values.get(id), counts[id]);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.service;
+
+import com.example.common.config.ServiceConfig;
+import com.example.common.security.ServiceTokenProvider;
+import com.example.dto.ProductPrice;
+import com.example.dto.ProductPriceNotification;
+import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
+import com.example.repository.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tells order-service about price and name changes so its price snapshot stays current without asking
+ * per order. Changed ids are collected as they commit and sent every
+ * {@code products.price-notifications.interval-ms}, reloaded from the database at send time, so a burst
+ * of edits to one product goes out once with its latest values.
+ * <p>
+ * Delivery is at least once: if any target fails, the batch is queued again and resent to all of them.
+ * order-service keeps the newer copy by {@code updatedAt}, and refreshes its snapshot periodically in
+ * case a notification is lost anyway. Requests carry the service token; the webhook refuses anything else.
+ */
+@Service
+public class ProductPriceNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductPriceNotifier.class);
+    private static final String WEBHOOK_PATH = "/api/webhooks/product-prices";
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private ServiceConfig serviceConfig;
+
+    @Autowired
+    private ServiceTokenProvider serviceTokenProvider;
+
+    @Value("${products.price-notifications.enabled:true}")
+    private boolean enabled;
+
+    // Each order-service instance keeps its own snapshot; empty means just services.order-service-url
+    @Value("${products.price-notifications.targets:}")
+    private List<String> targets;
+
+    @Value("${products.price-notifications.batch-size:500}")
+    private int batchSize;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void init() {
+        targets = targets.stream().filter(target -> !target.isBlank()).toList();
+        if (targets.isEmpty()) {
+            targets = List.of(serviceConfig.getOrderServiceUrl());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Stock movements do not change what an order line costs
+        if (enabled && event.getType() != ProductChangedEvent.ChangeType.STOCK_CHANGED) {
+            pending.add(event.getProductId());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.price-notifications.interval-ms:1000}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<Long> productIds = new ArrayList<>(batchSize);
+            Iterator<Long> iterator = pending.iterator();
+            while (iterator.hasNext() && productIds.size() < batchSize) {
+                productIds.add(iterator.next());
+                iterator.remove();
+            }
+            if (!send(productIds)) {
+                pending.addAll(productIds);
+                return;
+            }
+        }
+    }
+
+    private boolean send(List<Long> productIds) {
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            byId.put(product.getId(), product);
+        }
+        List<ProductPrice> products = new ArrayList<>(byId.size());
+        List<Long> removedIds = new ArrayList<>();
+        for (Long productId : productIds) {
+            Product product = byId.get(productId);
+            if (product != null) {
+                products.add(ProductService.priceOf(product));
+            } else {
+                removedIds.add(productId);
+            }
+        }
+        // order-service only accepts price pushes from a service caller
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(serviceTokenProvider.getToken());
+        HttpEntity<ProductPriceNotification> notification =
+                new HttpEntity<>(new ProductPriceNotification(products, removedIds), headers);
+
+        boolean delivered = true;
+        for (String target : targets) {
+            try {
+                restTemplate.postForObject(target + WEBHOOK_PATH, notification, Map.class);
+            } catch (Exception e) {
+                logger.warn("Failed to notify {} of {} product price changes, will retry: {}",
+                        target, productIds.size(), e.toString());
+                delivered = false;
+            }
+        }
+        return delivered;
+    }
+}
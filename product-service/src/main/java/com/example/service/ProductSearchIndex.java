@@ -0,0 +1,536 @@
+package com.example.service;
+
+import com.example.dto.ProductSearchCriteria;
+import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
+import com.example.event.ProductsImportedEvent;
+import com.example.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over product name, description, brand and category.
+ * <p>
+ * Text is lowercased and stripped of diacritics ("Điện thoại" matches "dien thoai") before it is split
+ * into terms. Every query word must match, either exactly, as the prefix of an indexed term, or (when
+ * neither finds anything) within one edit. Hits are ranked by field weight times inverse document
+ * frequency, with exact matches ahead of prefix and typo matches.
+ * <p>
+ * Each product gets a dense int ordinal. Postings are int/float arrays, and the fields used by filters
+ * are kept per ordinal, so a search never reaches the database. The index is built in id batches once
+ * the application is ready; until then {@link #isReady()} is false. After that it follows
+ * {@link ProductChangedEvent}s, and catches up with other instances' writes the way
+ * {@link ProductCatalogSnapshot} does: rows whose {@code updated_at} moved are re-read every
+ * {@code products.search.catch-up-interval-ms}, deleted rows are dropped every {@code prune-interval-ms}.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float BRAND_WEIGHT = 2f;
+    private static final float CATEGORY_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.7f;
+    private static final float FUZZY_FACTOR = 0.5f;
+
+    private static final int MIN_PREFIX_LENGTH = 2;
+    private static final int MIN_FUZZY_LENGTH = 4;
+    // Bounds the work a short prefix like "ip" can cause
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+    // Re-read this far behind the watermark, for transactions that committed after a later one
+    private static final Duration CATCH_UP_OVERLAP = Duration.ofSeconds(2);
+
+    private static final char[] ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789".toCharArray();
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_WORD = Pattern.compile("[^a-z0-9]+");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${products.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${products.search.build-batch-size:5000}")
+    private int buildBatchSize;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Postings> postingsByTerm = new TreeMap<>();
+    private final Map<Long, Integer> ordinalByProductId = new HashMap<>();
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private Doc[] docs = new Doc[1024];
+    private int nextOrdinal;
+    private int liveDocs;
+
+    private volatile boolean ready;
+    private LocalDateTime watermark = EPOCH;
+    // Products deleted while the initial build runs, so a batch read before the delete cannot bring them back
+    private final Set<Long> deletedDuringBuild = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.currentTimeMillis();
+        load(0, true);
+        ready = true;
+        deletedDuringBuild.clear();
+        logger.info("Product search index built: {} products, {} terms in {} ms",
+                liveDocs, postingsByTerm.size(), System.currentTimeMillis() - started);
+    }
+
+    @EventListener
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (enabled && ready) {
+            load(event.getAfterId(), false);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indexes every product with an id greater than {@code afterId}, in id batches. The initial build
+     * skips products an event has already indexed, since those are at least as fresh as the batch.
+     */
+    private void load(long afterId, boolean initialBuild) {
+        long lastId = afterId;
+        List<Product> batch;
+        do {
+            batch = productRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, buildBatchSize));
+            lock.writeLock().lock();
+            try {
+                for (Product product : batch) {
+                    if (!initialBuild || (!ordinalByProductId.containsKey(product.getId())
+                            && !deletedDuringBuild.contains(product.getId()))) {
+                        index(product);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } while (batch.size() == buildBatchSize);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Long productId = event.getProductId();
+        Product product = event.getType() == ProductChangedEvent.ChangeType.DELETED
+                ? null
+                : productRepository.findById(productId).orElse(null);
+        lock.writeLock().lock();
+        try {
+            if (product == null) {
+                if (!ready) {
+                    deletedDuringBuild.add(productId);
+                }
+                remove(productId);
+            } else {
+                index(product);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${products.search.catch-up-interval-ms:5000}")
+    public void catchUp() {
+        if (!enabled || !ready) {
+            return;
+        }
+        LocalDateTime since;
+        lock.readLock().lock();
+        try {
+            since = watermark.minus(CATCH_UP_OVERLAP);
+        } finally {
+            lock.readLock().unlock();
+        }
+        long lastId = 0;
+        List<Product> batch;
+        do {
+            batch = productRepository.findChangedAfter(since, lastId, PageRequest.of(0, buildBatchSize));
+            lock.writeLock().lock();
+            try {
+                batch.forEach(this::index);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!batch.isEmpty()) {
+                Product last = batch.get(batch.size() - 1);
+                since = last.getUpdatedAt();
+                lastId = last.getId();
+            }
+        } while (batch.size() == buildBatchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${products.search.prune-interval-ms:600000}")
+    public void pruneDeleted() {
+        if (!enabled || !ready) {
+            return;
+        }
+        // Ordinals are reused here, so judge by the ids known before the query rather than by ordinal
+        Set<Long> knownBefore;
+        lock.readLock().lock();
+        try {
+            knownBefore = new HashSet<>(ordinalByProductId.keySet());
+        } finally {
+            lock.readLock().unlock();
+        }
+        knownBefore.removeAll(new HashSet<>(productRepository.findAllIds()));
+        if (knownBefore.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            knownBefore.forEach(this::remove);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Dropped {} deleted products from the search index", knownBefore.size());
+    }
+
+    /**
+     * @return ids of the best matching products, most relevant first
+     */
+    public List<Long> search(String query, ProductSearchCriteria criteria, int limit) {
+        List<String> words = new ArrayList<>(new LinkedHashSet<>(tokenize(query)));
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Filter filter = Filter.of(criteria);
+
+        lock.readLock().lock();
+        try {
+            List<Map<Integer, Float>> perWord = new ArrayList<>(words.size());
+            for (String word : words) {
+                Map<Integer, Float> matches = match(word);
+                if (matches.isEmpty()) {
+                    return List.of();
+                }
+                perWord.add(matches);
+            }
+            // Intersect starting from the rarest word, so the candidate set only shrinks
+            perWord.sort(Comparator.comparingInt(Map::size));
+            Map<Integer, Float> scores = perWord.get(0);
+            for (int i = 1; i < perWord.size() && !scores.isEmpty(); i++) {
+                Map<Integer, Float> next = perWord.get(i);
+                scores.entrySet().removeIf(candidate -> {
+                    Float score = next.get(candidate.getKey());
+                    if (score == null) {
+                        return true;
+                    }
+                    candidate.setValue(candidate.getValue() + score);
+                    return false;
+                });
+            }
+
+            Comparator<Hit> byRelevance = Comparator.comparingDouble(Hit::score).reversed()
+                    .thenComparingLong(Hit::productId);
+            // Keeps the best `limit` hits, worst on top
+            PriorityQueue<Hit> best = new PriorityQueue<>(byRelevance.reversed());
+            for (Map.Entry<Integer, Float> candidate : scores.entrySet()) {
+                Doc doc = docs[candidate.getKey()];
+                if (!filter.test(doc)) {
+                    continue;
+                }
+                best.add(new Hit(doc.productId(), candidate.getValue()));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(byRelevance);
+            List<Long> productIds = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                productIds.add(hit.productId());
+            }
+            return productIds;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies the same filters as {@link #search} to a loaded product, for callers that cannot use the index.
+     */
+    public boolean accepts(ProductSearchCriteria criteria, Product product) {
+        return Filter.of(criteria).test(toDoc(product, null, null));
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String lower = text.toLowerCase(Locale.ROOT).replace('đ', 'd');
+        return DIACRITICS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : NON_WORD.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    private Map<Integer, Float> match(String word) {
+        Map<Integer, Float> scores = new HashMap<>();
+        Postings exact = postingsByTerm.get(word);
+        if (exact != null) {
+            collect(exact, 1f, scores);
+        }
+        if (word.length() >= MIN_PREFIX_LENGTH) {
+            int expansions = 0;
+            for (Postings postings : postingsByTerm.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+                if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                    break;
+                }
+                collect(postings, PREFIX_FACTOR, scores);
+            }
+        }
+        if (scores.isEmpty() && word.length() >= MIN_FUZZY_LENGTH) {
+            for (String variant : editsOf(word)) {
+                Postings postings = postingsByTerm.get(variant);
+                if (postings != null) {
+                    collect(postings, FUZZY_FACTOR, scores);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void collect(Postings postings, float factor, Map<Integer, Float> scores) {
+        float idf = (float) Math.log(1 + (double) liveDocs / postings.size);
+        for (int i = 0; i < postings.size; i++) {
+            scores.merge(postings.ordinals[i], postings.weights[i] * idf * factor, Math::max);
+        }
+    }
+
+    /** Every term one deletion, transposition, substitution or insertion away from {@code word}. */
+    private static Set<String> editsOf(String word) {
+        Set<String> edits = new LinkedHashSet<>();
+        StringBuilder buffer = new StringBuilder(word.length() + 1);
+        for (int i = 0; i <= word.length(); i++) {
+            if (i < word.length()) {
+                edits.add(word.substring(0, i) + word.substring(i + 1));
+                if (i + 1 < word.length()) {
+                    buffer.setLength(0);
+                    buffer.append(word, 0, i).append(word.charAt(i + 1)).append(word.charAt(i)).append(word, i + 2, word.length());
+                    edits.add(buffer.toString());
+                }
+            }
+            for (char c : ALPHABET) {
+                if (i < word.length() && c != word.charAt(i)) {
+                    edits.add(word.substring(0, i) + c + word.substring(i + 1));
+                }
+                edits.add(word.substring(0, i) + c + word.substring(i));
+            }
+        }
+        edits.remove(word);
+        return edits;
+    }
+
+    private void index(Product product) {
+        if (product.getUpdatedAt() != null && product.getUpdatedAt().isAfter(watermark)) {
+            watermark = product.getUpdatedAt();
+        }
+        TreeMap<String, Float> termWeights = new TreeMap<>();
+        addField(termWeights, product.getName(), NAME_WEIGHT);
+        addField(termWeights, product.getBrand(), BRAND_WEIGHT);
+        addField(termWeights, product.getCategory(), CATEGORY_WEIGHT);
+        addField(termWeights, product.getDescription(), DESCRIPTION_WEIGHT);
+        String[] terms = termWeights.keySet().toArray(new String[0]);
+        float[] weights = new float[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            weights[i] = termWeights.get(terms[i]);
+        }
+
+        Integer ordinal = ordinalByProductId.get(product.getId());
+        if (ordinal != null) {
+            Doc current = docs[ordinal];
+            if (current.updatedAt() != null && product.getUpdatedAt() != null
+                    && product.getUpdatedAt().isBefore(current.updatedAt())) {
+                // Two events for the same product raced; keep the newer state
+                return;
+            }
+            if (Arrays.equals(current.terms(), terms) && Arrays.equals(current.weights(), weights)) {
+                // Stock, price or status only: the postings stay as they are
+                docs[ordinal] = toDoc(product, current.terms(), current.weights());
+                return;
+            }
+            unpost(ordinal, current);
+        } else {
+            ordinal = allocateOrdinal();
+            ordinalByProductId.put(product.getId(), ordinal);
+            liveDocs++;
+        }
+
+        int slot = ordinal;
+        for (int i = 0; i < terms.length; i++) {
+            // Share one String instance per term between the dictionary and every doc
+            String canonical = postingsByTerm.ceilingKey(terms[i]);
+            if (terms[i].equals(canonical)) {
+                terms[i] = canonical;
+            }
+            postingsByTerm.computeIfAbsent(terms[i], term -> new Postings()).add(slot, weights[i]);
+        }
+        docs[slot] = toDoc(product, terms, weights);
+    }
+
+    private void remove(Long productId) {
+        Integer ordinal = ordinalByProductId.remove(productId);
+        if (ordinal == null) {
+            return;
+        }
+        unpost(ordinal, docs[ordinal]);
+        docs[ordinal] = null;
+        freeOrdinals.push(ordinal);
+        liveDocs--;
+    }
+
+    private void unpost(int ordinal, Doc doc) {
+        for (String term : doc.terms()) {
+            Postings postings = postingsByTerm.get(term);
+            if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                postingsByTerm.remove(term);
+            }
+        }
+    }
+
+    private int allocateOrdinal() {
+        if (!freeOrdinals.isEmpty()) {
+            return freeOrdinals.pop();
+        }
+        if (nextOrdinal == docs.length) {
+            docs = Arrays.copyOf(docs, docs.length * 2);
+        }
+        return nextOrdinal++;
+    }
+
+    private static void addField(Map<String, Float> termWeights, String text, float weight) {
+        // A term counts once per field, however often the field repeats it
+        for (String term : new LinkedHashSet<>(tokenize(text))) {
+            termWeights.merge(term, weight, Float::sum);
+        }
+    }
+
+    private static Doc toDoc(Product product, String[] terms, float[] weights) {
+        return new Doc(
+                product.getId(),
+                normalize(product.getCategory()),
+                normalize(product.getBrand()),
+                product.getPrice(),
+                product.getStockQuantity() != null ? product.getStockQuantity() : 0,
+                product.getStatus() == Product.ProductStatus.ACTIVE,
+                product.getUpdatedAt(),
+                terms,
+                weights);
+    }
+
+    private record Doc(long productId, String category, String brand, BigDecimal price, int stock, boolean active,
+                       LocalDateTime updatedAt, String[] terms, float[] weights) {}
+
+    private record Hit(long productId, float score) {}
+
+    private record Filter(String category, String brand, BigDecimal minPrice, BigDecimal maxPrice, boolean inStock) {
+
+        static Filter of(ProductSearchCriteria criteria) {
+            if (criteria == null) {
+                return new Filter(null, null, null, null, false);
+            }
+            return new Filter(
+                    criteria.getCategory() != null ? normalize(criteria.getCategory()) : null,
+                    criteria.getBrand() != null ? normalize(criteria.getBrand()) : null,
+                    criteria.getMinPrice(),
+                    criteria.getMaxPrice(),
+                    criteria.isInStock());
+        }
+
+        boolean test(Doc doc) {
+            if (category != null && !category.equals(doc.category())) {
+                return false;
+            }
+            if (brand != null && !brand.equals(doc.brand())) {
+                return false;
+            }
+            if (minPrice != null && (doc.price() == null || doc.price().compareTo(minPrice) < 0)) {
+                return false;
+            }
+            if (maxPrice != null && (doc.price() == null || doc.price().compareTo(maxPrice) > 0)) {
+                return false;
+            }
+            return !inStock || (doc.active() && doc.stock() > 0);
+        }
+    }
+
+    /** Ordinals containing one term, with that term's field weight in each. Unordered. */
+    private static final class Postings {
+        private int[] ordinals = new int[2];
+        private float[] weights = new float[2];
+        private int size;
+
+        void add(int ordinal, float weight) {
+            if (size == ordinals.length) {
+                ordinals = Arrays.copyOf(ordinals, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            ordinals[size] = ordinal;
+            weights[size] = weight;
+            size++;
+        }
+
+        boolean remove(int ordinal) {
+            for (int i = 0; i < size; i++) {
+                if (ordinals[i] == ordinal) {
+                    size--;
+                    ordinals[i] = ordinals[size];
+                    weights[i] = weights[size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
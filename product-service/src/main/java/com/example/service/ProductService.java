@@ -1,21 +1,36 @@
 package com.example.service;
 
+import com.example.common.exception.BusinessException;
 import com.example.common.exception.ResourceNotFoundException;
+import com.example.dto.ProductBrowseCriteria;
+import com.example.dto.ProductBrowseResponse;
+import com.example.dto.ProductPrice;
+import com.example.dto.ProductSearchCriteria;
+import com.example.dto.ProductSummary;
 import com.example.entity.Product;
+import com.example.event.ProductChangedEvent;
 import com.example.repository.ProductRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class ProductService {
 
     private static final Logger logger = LoggerFactory.getLogger(ProductService.class);
+    static final int MAX_PRICE_LOOKUP = 500;
 
     @Autowired
     private ProductRepository productRepository;
@@ -23,25 +38,105 @@ public class ProductService {
     @Autowired
     private RestTemplate restTemplate;
 
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private ProductCatalogCache productCatalogCache;
+
+    @Autowired
+    private ProductCatalogSnapshot productCatalogSnapshot;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductFacetIndex productFacetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${products.search.max-results:100}")
+    private int maxSearchResults;
+
+    public List<ProductSummary> getAllProducts() {
+        if (!productCatalogSnapshot.isReady()) {
+            return toSummaries(productRepository.findAll());
+        }
+        return productCatalogSnapshot.getAll();
     }
 
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
+        return productCatalogCache.getProduct(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
-    public List<Product> getAvailableProducts() {
-        return productRepository.findAvailableProducts();
+    public List<ProductSummary> getAvailableProducts() {
+        if (!productCatalogSnapshot.isReady()) {
+            return toSummaries(productRepository.findAvailableProducts());
+        }
+        return productCatalogSnapshot.getAvailable();
+    }
+
+    public List<ProductSummary> getProductsByCategory(String category) {
+        if (!productCatalogSnapshot.isReady()) {
+            return toSummaries(productRepository.findByCategory(category));
+        }
+        return productCatalogSnapshot.getByCategory(category);
+    }
+
+    public List<ProductSummary> searchProductsByName(String name) {
+        return searchProducts(name, new ProductSearchCriteria(), maxSearchResults);
+    }
+
+    public List<ProductSummary> searchProducts(String query, ProductSearchCriteria criteria, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("Search text is required");
+        }
+        int cappedLimit = Math.max(1, Math.min(limit, maxSearchResults));
+        if (productSearchIndex.isReady()) {
+            return getSummaries(productSearchIndex.search(query, criteria, cappedLimit));
+        }
+        // Index still building after startup (or disabled): plain LIKE on the name, same filters
+        List<Product> products = new ArrayList<>();
+        for (Product product : productRepository.findByNameContainingIgnoreCase(query.trim())) {
+            if (productSearchIndex.accepts(criteria, product)) {
+                products.add(product);
+                if (products.size() == cappedLimit) {
+                    break;
+                }
+            }
+        }
+        return toSummaries(products);
+    }
+
+    public ProductBrowseResponse browseProducts(ProductBrowseCriteria criteria, int page, int size) {
+        if (!productFacetIndex.isReady()) {
+            throw new BusinessException("Product browsing is not available yet, the catalog is still loading");
+        }
+        ProductFacetIndex.BrowseResult result = productFacetIndex.browse(criteria, page, size);
+        return new ProductBrowseResponse(getSummaries(result.productIds()),
+                page, size, result.totalElements(), result.facets());
     }
 
-    public List<Product> getProductsByCategory(String category) {
-        return productRepository.findByCategory(category);
+    /**
+     * Current price, name and status of the given products, read from the database rather than the
+     * snapshot because order-service charges these prices. Unknown ids are left out.
+     */
+    public List<ProductPrice> getProductPrices(List<Long> productIds) {
+        if (productIds.size() > MAX_PRICE_LOOKUP) {
+            throw new BusinessException("At most " + MAX_PRICE_LOOKUP + " product ids per request");
+        }
+        List<ProductPrice> prices = new ArrayList<>(productIds.size());
+        for (Product product : productRepository.findAllById(productIds)) {
+            prices.add(priceOf(product));
+        }
+        return prices;
     }
 
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    public static ProductPrice priceOf(Product product) {
+        return new ProductPrice(product.getId(), product.getName(), product.getPrice(),
+                product.getStatus() != null ? product.getStatus().name() : null, product.getUpdatedAt());
     }
 
     public Product createProduct(Product product) {
@@ -50,51 +145,108 @@ public class ProductService {
         product.setUpdatedAt(LocalDateTime.now());
         Product saved = productRepository.save(product);
         logger.info("Product created with ID: {}", saved.getId());
+        eventPublisher.publishEvent(new ProductChangedEvent(saved.getId(),
+                ProductChangedEvent.ChangeType.CREATED, saved.getCategory(), null));
         return saved;
     }
 
+    // One transaction so only changed columns are written: a concurrent hot stock flush is not overwritten
+    @Transactional
     public Product updateProduct(Long id, Product productDetails) {
-        Product product = getProductById(id);
+        // Load from the database, never mutate the instance shared through the cache
+        Product product = findProduct(id);
+        String previousCategory = product.getCategory();
         
         product.setName(productDetails.getName());
         product.setDescription(productDetails.getDescription());
         product.setPrice(productDetails.getPrice());
-        product.setStockQuantity(productDetails.getStockQuantity());
+        if (!Objects.equals(productDetails.getStockQuantity(), product.getStockQuantity())) {
+            hotStockService.checkServedHere(id);
+        }
+        if (!hotStockService.isHot(id)) {
+            product.setStockQuantity(productDetails.getStockQuantity());
+        } else if (!Objects.equals(productDetails.getStockQuantity(), product.getStockQuantity())) {
+            // Stock of a hot product is owned by its in-memory counter; overwriting the row would be undone by the next flush
+            throw new BusinessException("Stock of hot product " + id + " cannot be edited; send its current stockQuantity");
+        }
         product.setCategory(productDetails.getCategory());
         product.setBrand(productDetails.getBrand());
         product.setImageUrl(productDetails.getImageUrl());
         product.setStatus(productDetails.getStatus());
         product.setUpdatedAt(LocalDateTime.now());
         
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id,
+                ProductChangedEvent.ChangeType.UPDATED, saved.getCategory(), previousCategory));
+        return saved;
     }
 
     public void deleteProduct(Long id) {
-        Product product = getProductById(id);
+        Product product = findProduct(id);
         productRepository.delete(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(id,
+                ProductChangedEvent.ChangeType.DELETED, product.getCategory(), null));
     }
 
     public boolean updateStock(Long productId, Integer quantity) {
         try {
-            Product product = getProductById(productId);
-            if (product.getStockQuantity() >= quantity) {
-                product.setStockQuantity(product.getStockQuantity() - quantity);
-                productRepository.save(product);
-                return true;
+            hotStockService.checkServedHere(productId);
+            if (hotStockService.isHot(productId)) {
+                return hotStockService.tryReserve(productId, quantity);
             }
-            return false;
+            boolean updated = productRepository.decrementStock(productId, quantity, LocalDateTime.now()) == 1;
+            if (updated) {
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productId));
+            }
+            return updated;
         } catch (Exception e) {
+            logger.error("Failed to update stock for product: {}", productId, e);
             return false;
         }
     }
 
     public void restoreStock(Long productId, Integer quantity) {
         try {
-            Product product = getProductById(productId);
-            product.setStockQuantity(product.getStockQuantity() + quantity);
-            productRepository.save(product);
+            if (hotStockService.isHot(productId)) {
+                hotStockService.release(productId, quantity);
+            } else if (productRepository.incrementStock(productId, quantity, LocalDateTime.now()) == 0) {
+                logger.error("Failed to restore stock for product: {} (not found)", productId);
+            } else {
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productId));
+            }
         } catch (Exception e) {
             logger.error("Failed to restore stock for product: {}", productId, e);
         }
     }
-}
\ No newline at end of file
+
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
+    }
+
+    private List<ProductSummary> getSummaries(List<Long> productIds) {
+        if (productCatalogSnapshot.isReady()) {
+            return productCatalogSnapshot.getSummaries(productIds);
+        }
+        Map<Long, Product> byId = new HashMap<>();
+        for (Product product : productRepository.findAllById(productIds)) {
+            byId.put(product.getId(), product);
+        }
+        List<ProductSummary> summaries = new ArrayList<>(productIds.size());
+        for (Long productId : productIds) {
+            Product product = byId.get(productId);
+            if (product != null) {
+                summaries.add(ProductCatalogSnapshot.summaryOf(product));
+            }
+        }
+        return summaries;
+    }
+
+    private static List<ProductSummary> toSummaries(List<Product> products) {
+        List<ProductSummary> summaries = new ArrayList<>(products.size());
+        for (Product product : products) {
+            summaries.add(ProductCatalogSnapshot.summaryOf(product));
+        }
+        return summaries;
+    }
+}
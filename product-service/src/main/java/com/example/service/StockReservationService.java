@@ -0,0 +1,188 @@
+package com.example.service;
+
+import com.example.common.exception.BusinessException;
+import com.example.common.exception.ResourceNotFoundException;
+import com.example.dto.StockReservationRequest;
+import com.example.entity.StockReservation;
+import com.example.entity.StockReservationItem;
+import com.example.event.ProductChangedEvent;
+import com.example.repository.ProductRepository;
+import com.example.repository.StockReservationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Reserve / commit / release lifecycle for product stock.
+ * <p>
+ * Stock is taken off {@code products.stock_quantity} at reserve time with a conditional UPDATE, so
+ * concurrent reservations on the same product can never oversell. Commit and release are compare-and-set
+ * transitions on the reservation status, which makes them idempotent: repeating either call (or racing
+ * them) returns stock at most once.
+ */
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository stockReservationRepository;
+
+    @Autowired
+    private HotStockService hotStockService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${products.reservations.hold-duration:15m}")
+    private Duration holdDuration;
+
+    @Value("${products.reservations.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    /**
+     * Reserves every line of a cart in one transaction, all or nothing. Lines for the same product are
+     * merged and rows are decremented in ascending product id, so two carts sharing products always
+     * take their row locks in the same order and cannot deadlock each other.
+     */
+    @Transactional
+    public StockReservation reserve(List<StockReservationRequest.Item> items) {
+        if (items == null || items.isEmpty()) {
+            throw new BusinessException("Reservation must contain at least one item");
+        }
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (StockReservationRequest.Item item : items) {
+            if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() <= 0) {
+                throw new BusinessException("Each item needs a productId and a positive quantity");
+            }
+            quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        StockReservation reservation = new StockReservation();
+        for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+            Long productId = line.getKey();
+            int quantity = line.getValue();
+            // Throwing here rolls back the lines already decremented in this transaction
+            hotStockService.checkServedHere(productId);
+            if (hotStockService.isHot(productId)) {
+                if (!hotStockService.tryReserve(productId, quantity)) {
+                    throw new BusinessException("Insufficient stock for product: " + productId);
+                }
+            } else if (productRepository.decrementStock(productId, quantity, now) == 0) {
+                if (!productRepository.existsById(productId)) {
+                    throw new ResourceNotFoundException("Product not found with id: " + productId);
+                }
+                throw new BusinessException("Insufficient stock for product: " + productId);
+            } else {
+                eventPublisher.publishEvent(ProductChangedEvent.stockChanged(productId));
+            }
+            reservation.getItems().add(new StockReservationItem(productId, quantity));
+        }
+        reservation.setCreatedAt(now);
+        reservation.setUpdatedAt(now);
+        reservation.setExpiresAt(now.plus(holdDuration));
+        return stockReservationRepository.save(reservation);
+    }
+
+    @Transactional
+    public StockReservation commit(Long reservationId) {
+        stockReservationRepository.transition(reservationId,
+                StockReservation.ReservationStatus.HELD, StockReservation.ReservationStatus.COMMITTED, LocalDateTime.now());
+        StockReservation reservation = getReservation(reservationId);
+        if (reservation.getStatus() != StockReservation.ReservationStatus.COMMITTED) {
+            throw new BusinessException("Reservation " + reservationId + " is already " + reservation.getStatus());
+        }
+        return reservation;
+    }
+
+    @Transactional
+    public StockReservation release(Long reservationId) {
+        int released = stockReservationRepository.transition(reservationId,
+                StockReservation.ReservationStatus.HELD, StockReservation.ReservationStatus.RELEASED, LocalDateTime.now());
+        StockReservation reservation = getReservation(reservationId);
+        if (released == 1) {
+            // Items are loaded in product id order, the same order reserve() locked them in
+            LocalDateTime now = LocalDateTime.now();
+            for (StockReservationItem item : reservation.getItems()) {
+                if (hotStockService.isHot(item.getProductId())) {
+                    hotStockService.releaseAfterCommit(item.getProductId(), item.getQuantity());
+                } else {
+                    productRepository.incrementStock(item.getProductId(), item.getQuantity(), now);
+                    eventPublisher.publishEvent(ProductChangedEvent.stockChanged(item.getProductId()));
+                }
+            }
+            logger.info("Released reservation {} ({} products)", reservationId, reservation.getItems().size());
+        } else if (reservation.getStatus() != StockReservation.ReservationStatus.RELEASED) {
+            throw new BusinessException("Reservation " + reservationId + " is already " + reservation.getStatus());
+        }
+        return reservation;
+    }
+
+    /**
+     * Releases each reservation in its own transaction; unknown ids and reservations that are already
+     * released or committed are skipped, so callers can retry a whole batch safely.
+     *
+     * @return how many of the ids are RELEASED after the call
+     */
+    public int releaseAll(Collection<Long> reservationIds) {
+        int released = 0;
+        for (Long reservationId : new LinkedHashSet<>(reservationIds)) {
+            try {
+                StockReservation reservation = transactionTemplate.execute(status -> release(reservationId));
+                if (reservation != null && reservation.getStatus() == StockReservation.ReservationStatus.RELEASED) {
+                    released++;
+                }
+            } catch (BusinessException | ResourceNotFoundException e) {
+                logger.warn("Skipping release of reservation {}: {}", reservationId, e.getMessage());
+            }
+        }
+        return released;
+    }
+
+    /**
+     * Gives back stock held by reservations nobody committed or released in time (abandoned carts,
+     * orders whose release call was lost). Reads expired ids page by page from the (status, expires_at)
+     * index, so the cost is proportional to what expired, not to the size of the table.
+     */
+    @Scheduled(fixedDelayString = "${products.reservations.sweep-interval-ms:30000}")
+    public void releaseExpiredReservations() {
+        int total = 0;
+        List<Long> expired;
+        do {
+            expired = stockReservationRepository.findIdsExpiredBefore(
+                    StockReservation.ReservationStatus.HELD, LocalDateTime.now(), PageRequest.of(0, sweepBatchSize));
+            total += releaseAll(expired);
+        } while (expired.size() == sweepBatchSize);
+        if (total > 0) {
+            logger.info("Released {} expired stock reservations", total);
+        }
+    }
+
+    public StockReservation getReservation(Long reservationId) {
+        return stockReservationRepository.findById(reservationId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock reservation not found with id: " + reservationId));
+    }
+}
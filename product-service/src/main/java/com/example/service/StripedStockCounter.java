@@ -0,0 +1,81 @@
+package com.example.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Available stock of one product split over several independently CAS-updated stripes, so concurrent
+ * reservations on a hot product mostly touch different cache lines instead of one contended counter.
+ * A stripe never goes below zero, so the sum can never go negative either.
+ */
+final class StripedStockCounter {
+
+    // 16 ints = 64 bytes: each stripe sits on its own cache line
+    private static final int PADDING = 16;
+
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+
+    StripedStockCounter(int initialStock, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.cells = new AtomicIntegerArray(this.stripes * PADDING);
+        int available = Math.max(0, initialStock);
+        int share = available / this.stripes;
+        for (int i = 0; i < this.stripes; i++) {
+            cells.set(i * PADDING, share + (i < available % this.stripes ? 1 : 0));
+        }
+    }
+
+    boolean tryTake(int quantity) {
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PADDING;
+            int current;
+            while ((current = cells.get(cell)) >= quantity) {
+                if (cells.compareAndSet(cell, current, current - quantity)) {
+                    return true;
+                }
+            }
+        }
+        return takeAcrossStripes(quantity, start);
+    }
+
+    void give(int quantity) {
+        cells.addAndGet(ThreadLocalRandom.current().nextInt(stripes) * PADDING, quantity);
+    }
+
+    int available() {
+        int total = 0;
+        for (int i = 0; i < stripes; i++) {
+            total += cells.get(i * PADDING);
+        }
+        return total;
+    }
+
+    // No single stripe can cover the quantity: collect it piecewise, handing everything back on a shortfall
+    private boolean takeAcrossStripes(int quantity, int start) {
+        int[] taken = new int[stripes];
+        int remaining = quantity;
+        for (int i = 0; i < stripes && remaining > 0; i++) {
+            int stripe = (start + i) % stripes;
+            int cell = stripe * PADDING;
+            int current;
+            while (remaining > 0 && (current = cells.get(cell)) > 0) {
+                int portion = Math.min(current, remaining);
+                if (cells.compareAndSet(cell, current, current - portion)) {
+                    taken[stripe] += portion;
+                    remaining -= portion;
+                }
+            }
+        }
+        if (remaining == 0) {
+            return true;
+        }
+        for (int stripe = 0; stripe < stripes; stripe++) {
+            if (taken[stripe] > 0) {
+                cells.addAndGet(stripe * PADDING, taken[stripe]);
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,15 @@
+-- The products table as Hibernate (ddl-auto: update) created it; IF NOT EXISTS so it runs on databases that already have data
+CREATE TABLE IF NOT EXISTS products (
+    id             BIGINT         NOT NULL AUTO_INCREMENT,
+    name           VARCHAR(255)   NOT NULL,
+    description    TEXT,
+    price          DECIMAL(10, 2) NOT NULL,
+    stock_quantity INT,
+    category       VARCHAR(255),
+    brand          VARCHAR(255),
+    image_url      VARCHAR(255),
+    status         ENUM ('ACTIVE', 'INACTIVE', 'OUT_OF_STOCK'),
+    created_at     DATETIME(6),
+    updated_at     DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
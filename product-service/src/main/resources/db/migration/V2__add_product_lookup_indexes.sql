@@ -0,0 +1,8 @@
+-- findAvailableProducts: status = 'ACTIVE' AND stock_quantity > 0
+CREATE INDEX idx_products_status_stock ON products (status, stock_quantity);
+
+-- findByCategory, findByPriceRange within a category
+CREATE INDEX idx_products_category_price ON products (category, price);
+
+-- findByBrand
+CREATE INDEX idx_products_brand ON products (brand);
@@ -0,0 +1,9 @@
+-- findChangedAfter: keyset scan by (updated_at, id) that picks up changes made by other instances.
+-- ddl-auto may already have created it, and MySQL has no CREATE INDEX IF NOT EXISTS.
+SET @index_exists = (SELECT COUNT(*) FROM information_schema.statistics
+                     WHERE table_schema = DATABASE() AND table_name = 'products'
+                       AND index_name = 'idx_products_updated_at_id');
+SET @ddl = IF(@index_exists = 0, 'CREATE INDEX idx_products_updated_at_id ON products (updated_at, id)', 'DO 0');
+PREPARE statement FROM @ddl;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
@@ -0,0 +1,20 @@
+-- Stock reservations and their lines, as ddl-auto created them; IF NOT EXISTS for the same reason as V1
+CREATE TABLE IF NOT EXISTS stock_reservations (
+    id         BIGINT NOT NULL AUTO_INCREMENT,
+    status     ENUM ('HELD', 'COMMITTED', 'RELEASED') NOT NULL,
+    created_at DATETIME(6),
+    updated_at DATETIME(6),
+    expires_at DATETIME(6),
+    PRIMARY KEY (id),
+    -- Expiry sweep: HELD reservations past expires_at
+    INDEX idx_stock_reservations_status_expires_at (status, expires_at)
+) ENGINE = InnoDB;
+
+CREATE TABLE IF NOT EXISTS stock_reservation_items (
+    id             BIGINT NOT NULL AUTO_INCREMENT,
+    reservation_id BIGINT NOT NULL,
+    product_id     BIGINT NOT NULL,
+    quantity       INT    NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_stock_reservation_items_reservation FOREIGN KEY (reservation_id) REFERENCES stock_reservations (id)
+) ENGINE = InnoDB;
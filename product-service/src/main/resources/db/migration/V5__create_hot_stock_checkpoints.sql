@@ -0,0 +1,9 @@
+-- Single row (id 1) written by the hot stock owner: flushed journal sequence and its lease
+CREATE TABLE IF NOT EXISTS hot_stock_checkpoints (
+    id             BIGINT       NOT NULL,
+    last_sequence  BIGINT       NOT NULL,
+    owner_instance VARCHAR(255),
+    lease_until    DATETIME(6),
+    updated_at     DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE = InnoDB;
@@ -1,5 +1,6 @@
 package com.example.config;
 
+import com.example.common.security.JwtAuthenticationFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;